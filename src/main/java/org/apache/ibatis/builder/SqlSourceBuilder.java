@@ -59,6 +59,22 @@ public class SqlSourceBuilder extends BaseBuilder {
     return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
   }
 
+  /**
+   * Builds the parameter mappings of SQL whose {@code #{}} placeholders were already replaced by {@code ?}, without
+   * parsing the SQL again.
+   *
+   * @param sql the SQL with a {@code ?} for each placeholder
+   * @param parameters the contents of the placeholders, in order
+   * @since 3.5.4
+   */
+  public SqlSource build(String sql, List<String> parameters, Class<?> parameterType, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+    for (String content : parameters) {
+      handler.handleToken(content);
+    }
+    return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
+  }
+
   private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
     //list
     private List<ParameterMapping> parameterMappings = new ArrayList<>();
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -52,6 +53,20 @@ public interface Cache {
    */
   void putObject(Object key, Object value);
 
+  /**
+   * Puts several values at once, so decorators can take their locks and do their bookkeeping once per batch.
+   * <p>
+   * The cache may keep a reference to the map, so callers must not modify it afterwards.
+   *
+   * @param entries The keys and the values to put, values may be null
+   * @since 3.5.4
+   */
+  default void putAll(Map<Object, Object> entries) {
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      putObject(entry.getKey(), entry.getValue());
+    }
+  }
+
   /**
    * @param key The key
    * @return The object stored in the cache.
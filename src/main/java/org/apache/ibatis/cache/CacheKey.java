@@ -17,8 +17,13 @@ package org.apache.ibatis.cache;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -29,6 +34,15 @@ public class CacheKey implements Cloneable, Serializable {
 
   private static final long serialVersionUID = 1146682552656046210L;
 
+  // 保持旧版本(updateList 为 List)的序列化格式,hash64 在反序列化时重新计算
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("multiplier", int.class),
+      new ObjectStreamField("hashcode", int.class),
+      new ObjectStreamField("checksum", long.class),
+      new ObjectStreamField("count", int.class),
+      new ObjectStreamField("updateList", List.class)
+  };
+
   public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
     @Override
     public void update(Object object) {
@@ -43,40 +57,89 @@ public class CacheKey implements Cloneable, Serializable {
 
   private static final int DEFAULT_MULTIPLIER = 37;
   private static final int DEFAULT_HASHCODE = 17;
+  private static final int DEFAULT_CAPACITY = 8;
+  private static final Object[] EMPTY_UPDATES = {};
 
-  private final int multiplier;
+  private int multiplier;
   private int hashcode;
   private long checksum;
   private int count;
+  // 64 位的哈希,大多数不相等的key在比较元素之前就能被排除
+  private long hash64;
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient.  While true if content is not serializable, this is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
     this.hashcode = DEFAULT_HASHCODE;
     this.multiplier = DEFAULT_MULTIPLIER;
     this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.updateList = EMPTY_UPDATES;
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
+  /**
+   * Creates an empty key with room for the given number of updates.
+   *
+   * @param expectedUpdates the number of updates the key is expected to receive
+   * @since 3.5.4
+   */
+  public CacheKey(int expectedUpdates) {
+    this();
+    this.updateList = expectedUpdates > 0 ? new Object[expectedUpdates] : EMPTY_UPDATES;
+  }
+
+  /**
+   * Creates a key that starts with the updates already applied to {@code prefix}, without hashing them again.
+   *
+   * @param prefix the key to copy
+   * @param expectedUpdates the total number of updates the key is expected to hold, including those of the prefix
+   * @since 3.5.4
+   */
+  public CacheKey(CacheKey prefix, int expectedUpdates) {
+    this.multiplier = prefix.multiplier;
+    this.hashcode = prefix.hashcode;
+    this.checksum = prefix.checksum;
+    this.count = prefix.count;
+    this.hash64 = prefix.hash64;
+    this.updateList = Arrays.copyOf(prefix.updateList, Math.max(expectedUpdates, prefix.count));
+  }
+
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
+  }
+
+  /**
+   * Gets an object the key was updated with. Keys created by executors are first updated with the statement id.
+   *
+   * @param index the position of the update
+   * @return the object passed to that update
+   * @since 3.5.4
+   */
+  public Object getUpdate(int index) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Update count: " + count);
+    }
+    return updateList[index];
   }
 
   public void update(Object object) {
     int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
 
+    hash64 = mixHash64(hash64, baseHashCode, count);
     count++;
     checksum += baseHashCode;
     baseHashCode *= count;
 
     hashcode = multiplier * hashcode + baseHashCode;
     //
-    updateList.add(object);
+    if (count > updateList.length) {
+      updateList = Arrays.copyOf(updateList, Math.max(DEFAULT_CAPACITY, updateList.length * 2));
+    }
+    updateList[count - 1] = object;
   }
 
   public void updateAll(Object[] objects) {
@@ -85,6 +148,10 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  private static long mixHash64(long hash64, int baseHashCode, int index) {
+    return Long.rotateLeft(hash64 ^ (baseHashCode * 0x9E3779B97F4A7C15L), 27) * 0xC2B2AE3D27D4EB4FL + index;
+  }
+
   //只要两条SQL的下列五个值相同，即可以认为是相同的SQL。
   //Statement Id + Offset + Limmit + Sql + Params
   @Override
@@ -101,6 +168,9 @@ public class CacheKey implements Cloneable, Serializable {
     if (hashcode != cacheKey.hashcode) {
       return false;
     }
+    if (hash64 != cacheKey.hash64) {
+      return false;
+    }
     if (checksum != cacheKey.checksum) {
       return false;
     }
@@ -108,9 +178,9 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
+    for (int i = 0; i < count; i++) {
+      Object thisObject = updateList[i];
+      Object thatObject = cacheKey.updateList[i];
       if (!ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
@@ -128,15 +198,43 @@ public class CacheKey implements Cloneable, Serializable {
     StringJoiner returnValue = new StringJoiner(":");
     returnValue.add(String.valueOf(hashcode));
     returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    for (int i = 0; i < count; i++) {
+      returnValue.add(ArrayUtil.toString(updateList[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    clonedCacheKey.updateList = updateList.clone();
     return clonedCacheKey;
   }
 
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("multiplier", multiplier);
+    fields.put("hashcode", hashcode);
+    fields.put("checksum", checksum);
+    fields.put("count", count);
+    fields.put("updateList", new ArrayList<>(Arrays.asList(updateList).subList(0, count)));
+    out.writeFields();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField fields = in.readFields();
+    multiplier = fields.get("multiplier", DEFAULT_MULTIPLIER);
+    hashcode = fields.get("hashcode", DEFAULT_HASHCODE);
+    checksum = fields.get("checksum", 0L);
+    List<Object> updates = (List<Object>) fields.get("updateList", null);
+    updateList = updates == null || updates.isEmpty() ? EMPTY_UPDATES : updates.toArray();
+    count = updateList.length;
+    hash64 = 0;
+    for (int i = 0; i < count; i++) {
+      Object object = updateList[i];
+      hash64 = mixHash64(hash64, object == null ? 1 : ArrayUtil.hashCode(object), i);
+    }
+  }
+
 }
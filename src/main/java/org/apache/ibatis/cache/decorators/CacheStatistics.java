@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.util.LatencyHistogram;
+
+/**
+ * Counters and latency histograms of a cache, or of the entries one statement put into it.
+ * <p>
+ * Hits, misses, puts and latencies are recorded by the {@link StatisticsCache}. Entries, bytes and evictions are
+ * recorded by the {@link StorageStatisticsCache} below the eviction decorators and stay at zero without it.
+ *
+ * @since 3.5.4
+ */
+public class CacheStatistics {
+
+  private final String id;
+  protected final LongAdder hits = new LongAdder();
+  protected final LongAdder misses = new LongAdder();
+  protected final LongAdder puts = new LongAdder();
+  protected final LongAdder evictions = new LongAdder();
+  protected final LongAdder entries = new LongAdder();
+  protected final LongAdder bytes = new LongAdder();
+  private final LatencyHistogram getTime = new LatencyHistogram();
+  private final LatencyHistogram putTime = new LatencyHistogram();
+
+  public CacheStatistics(String id) {
+    this.id = id;
+  }
+
+  /**
+   * The cache id for the totals of a cache, the statement id otherwise.
+   *
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getRequestCount() {
+    return hits.sum() + misses.sum();
+  }
+
+  public double getHitRatio() {
+    long requests = getRequestCount();
+    return requests == 0 ? 0 : (double) hits.sum() / requests;
+  }
+
+  public long getPutCount() {
+    return puts.sum();
+  }
+
+  /**
+   * The number of entries the cache dropped to make room or because their values were garbage collected.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public long getEntryCount() {
+    return entries.sum();
+  }
+
+  /**
+   * The total length of the serialized values held, only known for read/write caches.
+   *
+   * @return the estimated size in bytes
+   */
+  public long getEstimatedBytes() {
+    return bytes.sum();
+  }
+
+  /**
+   * Time spent reading from the cache, hits and misses alike.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getGetTime() {
+    return getTime;
+  }
+
+  /**
+   * Time spent writing to the cache.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getPutTime() {
+    return putTime;
+  }
+
+  void recordGet(boolean hit, long nanos) {
+    if (hit) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    getTime.record(nanos);
+  }
+
+  void recordPut(long nanos) {
+    puts.increment();
+    putTime.record(nanos);
+  }
+
+  void resetStorage() {
+    entries.reset();
+    bytes.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics{id=" + id
+        + ", hits=" + getHitCount()
+        + ", misses=" + getMissCount()
+        + ", hitRatio=" + getHitRatio()
+        + ", puts=" + getPutCount()
+        + ", evictions=" + getEvictionCount()
+        + ", entries=" + getEntryCount()
+        + ", bytes=" + getEstimatedBytes()
+        + ", getTime={" + getTime
+        + "}, putTime={" + putTime
+        + "}}";
+  }
+
+}
@@ -15,28 +15,46 @@
  */
 package org.apache.ibatis.cache.decorators;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
-import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.CompressingSerializer;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
 import org.apache.ibatis.io.Resources;
 
 /**
+ * Stores serialized copies of the cached values so callers never share instances.
+ * <p>
+ * Values are written with Java serialization unless another {@link CacheSerializer} is set with the
+ * {@code serializer} property. Values larger than {@code compressionThreshold} bytes are also deflated.
+ *
  * @author Clinton Begin
  */
 public class SerializedCache implements Cache {
 
   private final Cache delegate;
+  private CacheSerializer baseSerializer;
+  private int compressionThreshold;
+  private CacheSerializer serializer;
 
   public SerializedCache(Cache delegate) {
+    this(delegate, new JavaSerializer());
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public SerializedCache(Cache delegate, CacheSerializer serializer) {
     this.delegate = delegate;
+    this.baseSerializer = serializer;
+    this.serializer = serializer;
   }
 
   @Override
@@ -51,17 +69,22 @@ public class SerializedCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
-    if (object == null || object instanceof Serializable) {
-      delegate.putObject(key, serialize((Serializable) object));
-    } else {
-      throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + object);
+    delegate.putObject(key, serializer.serialize(object));
+  }
+
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    Map<Object, Object> serialized = new HashMap<>((int) (entries.size() / .75f) + 1);
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      serialized.put(entry.getKey(), serializer.serialize(entry.getValue()));
     }
+    delegate.putAll(serialized);
   }
 
   @Override
   public Object getObject(Object key) {
     Object object = delegate.getObject(key);
-    return object == null ? null : deserialize((byte[]) object);
+    return object == null ? null : serializer.deserialize((byte[]) object);
   }
 
   @Override
@@ -74,6 +97,30 @@ public class SerializedCache implements Cache {
     delegate.clear();
   }
 
+  /**
+   * Sets the serializer by class name. The class must implement {@link CacheSerializer}.
+   *
+   * @param serializer The fully qualified class name of the serializer
+   * @since 3.5.4
+   */
+  public void setSerializer(String serializer) {
+    this.baseSerializer = createSerializer(serializer);
+    this.serializer = compress(baseSerializer, compressionThreshold);
+  }
+
+  /**
+   * @param compressionThreshold The size in bytes from which serialized values are deflated, 0 disables compression
+   * @since 3.5.4
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+    this.serializer = compress(baseSerializer, compressionThreshold);
+  }
+
+  public CacheSerializer getSerializer() {
+    return serializer;
+  }
+
   @Override
   public int hashCode() {
     return delegate.hashCode();
@@ -84,26 +131,22 @@ public class SerializedCache implements Cache {
     return delegate.equals(obj);
   }
 
-  private byte[] serialize(Serializable value) {
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-         ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-      oos.writeObject(value);
-      oos.flush();
-      return bos.toByteArray();
+  /**
+   * @since 3.5.4
+   */
+  public static CacheSerializer createSerializer(String className) {
+    try {
+      return (CacheSerializer) Resources.classForName(className).getDeclaredConstructor().newInstance();
     } catch (Exception e) {
-      throw new CacheException("Error serializing object.  Cause: " + e, e);
+      throw new CacheException("Error creating cache serializer '" + className + "'.  Cause: " + e, e);
     }
   }
 
-  private Serializable deserialize(byte[] value) {
-    Serializable result;
-    try (ByteArrayInputStream bis = new ByteArrayInputStream(value);
-         ObjectInputStream ois = new CustomObjectInputStream(bis)) {
-      result = (Serializable) ois.readObject();
-    } catch (Exception e) {
-      throw new CacheException("Error deserializing object.  Cause: " + e, e);
-    }
-    return result;
+  /**
+   * @since 3.5.4
+   */
+  public static CacheSerializer compress(CacheSerializer serializer, int compressionThreshold) {
+    return compressionThreshold > 0 ? new CompressingSerializer(serializer, compressionThreshold) : serializer;
   }
 
   public static class CustomObjectInputStream extends ObjectInputStream {
@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Statistics decorator.
+ * <p>
+ * Records hits, misses, puts and get/put latency of the cache and of every statement that uses it, so one can see
+ * which statements are worth caching. Entries, bytes and evictions are filled in when the
+ * {@link StorageStatisticsCache} given to the constructor sits below the eviction decorators.
+ *
+ * @since 3.5.4
+ */
+public class StatisticsCache implements Cache {
+
+  private final Cache delegate;
+  private final StatisticsRegistry registry;
+
+  public StatisticsCache(Cache delegate) {
+    this.delegate = delegate;
+    this.registry = new StatisticsRegistry(delegate.getId());
+  }
+
+  public StatisticsCache(Cache delegate, StorageStatisticsCache storage) {
+    this.delegate = delegate;
+    this.registry = storage.getRegistry();
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    long start = System.nanoTime();
+    delegate.putObject(key, object);
+    long nanos = System.nanoTime() - start;
+    registry.getTotal().recordPut(nanos);
+    CacheStatistics statement = registry.forKey(key);
+    if (statement != null) {
+      statement.recordPut(nanos);
+    }
+  }
+
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    long start = System.nanoTime();
+    delegate.putAll(entries);
+    // the batch is timed as a whole, each entry is counted with its share
+    long nanos = (System.nanoTime() - start) / Math.max(entries.size(), 1);
+    for (Object key : entries.keySet()) {
+      registry.getTotal().recordPut(nanos);
+      CacheStatistics statement = registry.forKey(key);
+      if (statement != null) {
+        statement.recordPut(nanos);
+      }
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    long start = System.nanoTime();
+    Object value = delegate.getObject(key);
+    long nanos = System.nanoTime() - start;
+    registry.getTotal().recordGet(value != null, nanos);
+    CacheStatistics statement = registry.forKey(key);
+    if (statement != null) {
+      statement.recordGet(value != null, nanos);
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  /**
+   * Gets the totals of the cache.
+   *
+   * @return the statistics
+   */
+  public CacheStatistics getStatistics() {
+    return registry.getTotal();
+  }
+
+  /**
+   * Gets the statistics of the entries a statement read from and put into the cache.
+   *
+   * @param statementId the id of the mapped statement
+   * @return null if the statement did not use the cache yet
+   */
+  public CacheStatistics getStatementStatistics(String statementId) {
+    return registry.getStatement(statementId);
+  }
+
+  public Collection<CacheStatistics> getStatementStatistics() {
+    return registry.getStatements();
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheKey;
+
+/**
+ * The statistics of one cache, shared by its {@link StatisticsCache} and {@link StorageStatisticsCache}.
+ */
+class StatisticsRegistry {
+
+  private final CacheStatistics total;
+  private final ConcurrentMap<String, CacheStatistics> statements = new ConcurrentHashMap<>();
+
+  StatisticsRegistry(String id) {
+    this.total = new CacheStatistics(id);
+  }
+
+  CacheStatistics getTotal() {
+    return total;
+  }
+
+  CacheStatistics getStatement(String statementId) {
+    return statements.get(statementId);
+  }
+
+  Collection<CacheStatistics> getStatements() {
+    return Collections.unmodifiableCollection(statements.values());
+  }
+
+  /**
+   * Gets the statistics of the statement that created the key.
+   *
+   * @return null if the key was not created by an executor
+   */
+  CacheStatistics forKey(Object key) {
+    if (!(key instanceof CacheKey)) {
+      return null;
+    }
+    CacheKey cacheKey = (CacheKey) key;
+    if (cacheKey.getUpdateCount() == 0 || !(cacheKey.getUpdate(0) instanceof String)) {
+      return null;
+    }
+    String statementId = (String) cacheKey.getUpdate(0);
+    CacheStatistics statistics = statements.get(statementId);
+    if (statistics == null) {
+      statistics = statements.computeIfAbsent(statementId, CacheStatistics::new);
+    }
+    return statistics;
+  }
+
+  void resetStorage() {
+    total.resetStorage();
+    for (CacheStatistics statistics : statements.values()) {
+      statistics.resetStorage();
+    }
+  }
+
+}
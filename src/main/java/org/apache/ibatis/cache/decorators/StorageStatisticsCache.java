@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Map;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Counts the entries, bytes and evictions of a cache for its {@link StatisticsCache}.
+ * <p>
+ * Meant to wrap the base cache directly, below the eviction decorators: they evict by removing entries from their
+ * delegate, so every removal that shrinks the cache is counted as an eviction. Bytes are only known for serialized
+ * values. The counts are exact when calls are synchronized above it and approximate otherwise.
+ *
+ * @since 3.5.4
+ */
+public class StorageStatisticsCache implements Cache {
+
+  private final Cache delegate;
+  private final StatisticsRegistry registry;
+
+  public StorageStatisticsCache(Cache delegate) {
+    this.delegate = delegate;
+    this.registry = new StatisticsRegistry(delegate.getId());
+  }
+
+  StatisticsRegistry getRegistry() {
+    return registry;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    Object previous = object instanceof byte[] ? delegate.getObject(key) : null;
+    int size = delegate.getSize();
+    delegate.putObject(key, object);
+    recordPut(key, object, previous, delegate.getSize() - size);
+  }
+
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      putObject(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    int size = delegate.getSize();
+    Object removed = delegate.removeObject(key);
+    if (delegate.getSize() < size) {
+      long bytes = -length(removed);
+      record(registry.getTotal(), -1, bytes, true);
+      CacheStatistics statement = registry.forKey(key);
+      if (statement != null) {
+        record(statement, -1, bytes, true);
+      }
+    }
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    registry.resetStorage();
+  }
+
+  private void recordPut(Object key, Object object, Object previous, int added) {
+    long bytes = length(object) - length(previous);
+    record(registry.getTotal(), added, bytes, false);
+    CacheStatistics statement = registry.forKey(key);
+    if (statement != null) {
+      record(statement, added, bytes, false);
+    }
+  }
+
+  private static void record(CacheStatistics statistics, int entries, long bytes, boolean eviction) {
+    if (entries != 0) {
+      statistics.entries.add(entries);
+    }
+    if (bytes != 0) {
+      statistics.bytes.add(bytes);
+    }
+    if (eviction) {
+      statistics.evictions.increment();
+    }
+  }
+
+  private static long length(Object value) {
+    return value instanceof byte[] ? ((byte[]) value).length : 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+}
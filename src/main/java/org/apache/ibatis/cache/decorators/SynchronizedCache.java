@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
+
 import org.apache.ibatis.cache.Cache;
 
 /**
@@ -43,6 +45,11 @@ public class SynchronizedCache implements Cache {
     delegate.putObject(key, object);
   }
 
+  @Override
+  public synchronized void putAll(Map<Object, Object> entries) {
+    delegate.putAll(entries);
+  }
+
   @Override
   public synchronized Object getObject(Object key) {
     return delegate.getObject(key);
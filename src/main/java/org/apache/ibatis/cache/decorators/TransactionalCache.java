@@ -84,6 +84,11 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.put(key, object);
   }
 
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    entriesToAddOnCommit.putAll(entries);
+  }
+
   @Override
   public Object removeObject(Object key) {
     return null;
@@ -115,14 +120,17 @@ public class TransactionalCache implements Cache {
   }
 
   private void flushPendingEntries() {
-    for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+    if (entriesToAddOnCommit.isEmpty() && entriesMissedInCache.isEmpty()) {
+      return;
     }
+    // 一次性交给delegate, 装饰器链上的锁只需要获取一次
+    Map<Object, Object> pendingEntries = new HashMap<>(entriesToAddOnCommit);
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+        pendingEntries.put(entry, null);
       }
     }
+    delegate.putAll(pendingEntries);
   }
 
   private void unlockMissedEntries() {
@@ -0,0 +1,133 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Write-behind decorator.
+ * <p>
+ * Puts are handed to a shared daemon thread, so a committing session does not wait for the entries to go through
+ * the rest of the decorator chain. Reads and clears stay on the calling thread: a clear drops every put that was
+ * queued before it, so a value read before an update can not be written to the cache after the update cleared it.
+ * Until a queued put has run, reads of its key are misses.
+ *
+ * @since 3.5.4
+ */
+public class WriteBehindCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(WriteBehindCache.class);
+
+  private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "mybatis-cache-write-behind");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Cache delegate;
+  private long generation;
+
+  public WriteBehindCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    putAll(Collections.singletonMap(key, object));
+  }
+
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    long queuedGeneration = getGeneration();
+    writer.execute(() -> write(entries, queuedGeneration));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    generation++;
+    delegate.clear();
+  }
+
+  /**
+   * Waits until the puts queued so far have been written to the cache.
+   */
+  public void flush() {
+    try {
+      writer.submit(() -> { }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Interrupted while waiting for cache writes of " + getId(), e);
+    } catch (ExecutionException e) {
+      throw new CacheException("Error waiting for cache writes of " + getId() + ".  Cause: " + e, e);
+    }
+  }
+
+  private synchronized long getGeneration() {
+    return generation;
+  }
+
+  private synchronized void write(Map<Object, Object> entries, long queuedGeneration) {
+    if (queuedGeneration != generation) {
+      return;
+    }
+    try {
+      delegate.putAll(entries);
+    } catch (Exception e) {
+      // the writer thread is shared by all caches, a failure must not stop it
+      log.warn("Writing " + entries.size() + " entries to cache " + getId() + " failed.  Cause: " + e);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+}
@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+/**
+ * A probabilistic counter of how often keys were accessed recently, used by {@link TinyLfuCache} to decide whether
+ * a new entry is worth evicting an older one.
+ * <p>
+ * This is a count-min sketch with four 4-bit counters per key packed into longs. All counters are halved once the
+ * number of increments reaches ten times the cache size, so old popularity fades. Updates are not synchronized:
+ * concurrent increments can be lost, which only makes the estimate slightly less accurate.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  // replaced by ensureCapacity while other threads read and increment the counters
+  private volatile long[] table;
+  private int sampleSize;
+  private int additions;
+
+  FrequencySketch(int maximumSize) {
+    ensureCapacity(maximumSize);
+  }
+
+  void ensureCapacity(int maximumSize) {
+    int length = Integer.highestOneBit(Math.max(maximumSize, 2) - 1) << 1;
+    if (table != null && table.length >= length) {
+      return;
+    }
+    sampleSize = (int) Math.min(10L * Math.max(maximumSize, 1), Integer.MAX_VALUE);
+    additions = 0;
+    table = new long[length];
+  }
+
+  int frequency(Object key) {
+    long[] counters = table;
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i, counters.length - 1);
+      int count = (int) ((counters[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(Object key) {
+    long[] counters = table;
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(counters, indexOf(hash, i, counters.length - 1), start + i);
+    }
+    if (added && ++additions >= sampleSize) {
+      reset(counters);
+    }
+  }
+
+  void clear() {
+    long[] counters = table;
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = 0L;
+    }
+    additions = 0;
+  }
+
+  private boolean incrementAt(long[] counters, int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((counters[index] & mask) != mask) {
+      counters[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset(long[] counters) {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = (counters[i] >>> 1) & RESET_MASK;
+    }
+    additions = additions >>> 1;
+  }
+
+  private static int indexOf(int hash, int depth, int mask) {
+    long h = (hash + SEEDS[depth]) * SEEDS[depth];
+    h += h >>> 32;
+    return ((int) h) & mask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+}
@@ -0,0 +1,288 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
+
+/**
+ * A cache that keeps serialized values outside of the Java heap.
+ * <p>
+ * Values are appended to direct {@link ByteBuffer} slabs that are used as a ring: when the last slab is full, the
+ * oldest slab is emptied and written again, evicting every entry it held. Only the keys and the location of each
+ * value stay on the heap, so the garbage collector does not have to scan the cached rows.
+ * <p>
+ * Every {@link #getObject(Object)} returns a fresh copy, as with the
+ * {@link SerializedCache}. Values are written with Java serialization unless the {@code serializer} and
+ * {@code compressionThreshold} properties say otherwise, as for the {@link SerializedCache}. The memory used is set
+ * with the {@code capacity} and {@code slabSize} properties in bytes; values larger than a slab are not cached.
+ */
+public class OffHeapCache implements Cache {
+
+  private final String id;
+  private final Map<Object, Location> index = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private long capacity = 64L * 1024 * 1024;
+  private int slabSize = 4 * 1024 * 1024;
+  private CacheSerializer baseSerializer = new JavaSerializer();
+  private int compressionThreshold;
+  private CacheSerializer serializer = baseSerializer;
+  private Slab[] slabs;
+  private int currentSlab;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Sets the total number of bytes the cache may allocate outside of the heap.
+   *
+   * @param capacity the capacity in bytes
+   */
+  public void setCapacity(long capacity) {
+    lock.writeLock().lock();
+    try {
+      this.capacity = capacity;
+      reset();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Sets the size of the buffers the capacity is split into. A whole slab is evicted at once.
+   *
+   * @param slabSize the slab size in bytes
+   */
+  public void setSlabSize(int slabSize) {
+    lock.writeLock().lock();
+    try {
+      this.slabSize = slabSize;
+      reset();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * @param serializer The fully qualified class name of a {@link CacheSerializer}
+   */
+  public void setSerializer(String serializer) {
+    this.baseSerializer = SerializedCache.createSerializer(serializer);
+    this.serializer = SerializedCache.compress(baseSerializer, compressionThreshold);
+  }
+
+  /**
+   * @param compressionThreshold The size in bytes from which serialized values are deflated, 0 disables compression
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+    this.serializer = SerializedCache.compress(baseSerializer, compressionThreshold);
+  }
+
+  public CacheSerializer getSerializer() {
+    return serializer;
+  }
+
+  @Override
+  public int getSize() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    byte[] bytes = serializer.serialize(value);
+    lock.writeLock().lock();
+    try {
+      if (bytes.length > slabSize) {
+        index.remove(key);
+        return;
+      }
+      Slab slab = slabFor(bytes.length);
+      Location location = new Location(currentSlab, slab.position, bytes.length);
+      ByteBuffer buffer = slab.buffer.duplicate();
+      buffer.position(slab.position);
+      buffer.put(bytes);
+      slab.position += bytes.length;
+      slab.keys.add(key);
+      index.put(key, location);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] bytes;
+    lock.readLock().lock();
+    try {
+      Location location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      bytes = new byte[location.length];
+      ByteBuffer buffer = slabs[location.slab].buffer.duplicate();
+      buffer.position(location.offset);
+      buffer.get(bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return serializer.deserialize(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.writeLock().lock();
+    try {
+      // the bytes stay in the slab until it is reused, the previous value is not deserialized just to return it
+      index.remove(key);
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      index.clear();
+      if (slabs != null) {
+        for (Slab slab : slabs) {
+          if (slab != null) {
+            slab.position = 0;
+            slab.keys.clear();
+          }
+        }
+      }
+      currentSlab = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void reset() {
+    index.clear();
+    slabs = null;
+    currentSlab = 0;
+  }
+
+  /**
+   * Returns the slab to append a value of the given length to, evicting the oldest slab when all are full.
+   */
+  private Slab slabFor(int length) {
+    if (slabs == null) {
+      slabs = new Slab[(int) Math.max(1, Math.min(capacity / slabSize, Integer.MAX_VALUE))];
+    }
+    Slab slab = slabs[currentSlab];
+    if (slab == null) {
+      slab = slabs[currentSlab] = new Slab(slabSize);
+    }
+    if (slab.position + length <= slabSize) {
+      return slab;
+    }
+    currentSlab = (currentSlab + 1) % slabs.length;
+    slab = slabs[currentSlab];
+    if (slab == null) {
+      return slabs[currentSlab] = new Slab(slabSize);
+    }
+    for (Object key : slab.keys) {
+      Location location = index.get(key);
+      if (location != null && location.slab == currentSlab) {
+        index.remove(key);
+      }
+    }
+    slab.keys.clear();
+    slab.position = 0;
+    return slab;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Slab {
+    private final ByteBuffer buffer;
+    private final List<Object> keys = new ArrayList<>();
+    private int position;
+
+    Slab(int size) {
+      this.buffer = ByteBuffer.allocateDirect(size);
+    }
+  }
+
+  private static final class Location {
+    private final int slab;
+    private final int offset;
+    private final int length;
+
+    Location(int slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+}
@@ -49,6 +49,11 @@ public class PerpetualCache implements Cache {
     cache.put(key, value);
   }
 
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    cache.putAll(entries);
+  }
+
   @Override
   public Object getObject(Object key) {
     return cache.get(key);
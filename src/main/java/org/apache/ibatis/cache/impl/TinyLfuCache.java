@@ -0,0 +1,284 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * A thread-safe, size-bounded cache with W-TinyLFU style admission.
+ * <p>
+ * Entries are looked up in a {@link ConcurrentHashMap}, so {@link #getObject(Object)} never locks: it only marks the
+ * entry as referenced and counts the access in a {@link FrequencySketch}. New entries first go to a small window
+ * (1% of the size). When the window overflows, its victim is admitted to the main area only if it was accessed more
+ * often than the main area's victim. Both areas choose victims with the CLOCK (second chance) algorithm, so
+ * eviction is O(1). Insertions and evictions are serialized by a lock that readers never take.
+ * <p>
+ * Because the cache is thread-safe and evicts entries itself, the {@link org.apache.ibatis.mapping.CacheBuilder}
+ * applies neither an eviction decorator nor the {@link org.apache.ibatis.cache.decorators.SynchronizedCache} to it.
+ */
+public class TinyLfuCache implements Cache {
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Node> cache = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final Segment window = new Segment();
+  private final Segment main = new Segment();
+  private final FrequencySketch sketch;
+  private int windowCapacity;
+  private int mainCapacity;
+
+  public TinyLfuCache(String id) {
+    this.id = id;
+    this.sketch = new FrequencySketch(1024);
+    setSize(1024);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  public void setSize(int size) {
+    evictionLock.lock();
+    try {
+      windowCapacity = Math.max(1, size / 100);
+      mainCapacity = Math.max(0, size - windowCapacity);
+      sketch.ensureCapacity(size);
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    sketch.increment(key);
+    Node node = cache.get(key);
+    if (node != null) {
+      node.value = value;
+      node.referenced = true;
+      return;
+    }
+    evictionLock.lock();
+    try {
+      node = cache.get(key);
+      if (node != null) {
+        node.value = value;
+        node.referenced = true;
+        return;
+      }
+      node = new Node(key, value);
+      cache.put(key, node);
+      window.add(node);
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putAll(Map<Object, Object> entries) {
+    for (Object key : entries.keySet()) {
+      sketch.increment(key);
+    }
+    evictionLock.lock();
+    try {
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        Node node = cache.get(entry.getKey());
+        if (node != null) {
+          node.value = entry.getValue();
+          node.referenced = true;
+        } else {
+          node = new Node(entry.getKey(), entry.getValue());
+          cache.put(entry.getKey(), node);
+          window.add(node);
+          evict();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    sketch.increment(key);
+    Node node = cache.get(key);
+    if (node == null) {
+      return null;
+    }
+    if (!node.referenced) {
+      node.referenced = true;
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    evictionLock.lock();
+    try {
+      Node node = cache.remove(key);
+      if (node == null) {
+        return null;
+      }
+      node.segment.remove(node);
+      return node.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      cache.clear();
+      window.clear();
+      main.clear();
+      sketch.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evict() {
+    while (window.size > windowCapacity) {
+      Node candidate = window.victim();
+      window.remove(candidate);
+      if (main.size < mainCapacity) {
+        main.add(candidate);
+        continue;
+      }
+      Node victim = main.size == 0 ? null : main.victim();
+      if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        main.remove(victim);
+        cache.remove(victim.key, victim);
+        main.add(candidate);
+      } else {
+        cache.remove(candidate.key, candidate);
+      }
+    }
+    while (main.size > mainCapacity) {
+      Node victim = main.victim();
+      main.remove(victim);
+      cache.remove(victim.key, victim);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Node {
+    private final Object key;
+    private volatile Object value;
+    private volatile boolean referenced;
+    // guarded by the eviction lock
+    private Segment segment;
+    private Node prev;
+    private Node next;
+
+    Node(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /**
+   * A doubly linked queue of nodes. Only accessed while holding the eviction lock.
+   */
+  private static final class Segment {
+    private final Node head = new Node(null, null);
+    private int size;
+
+    Segment() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    void add(Node node) {
+      node.segment = this;
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+      size++;
+    }
+
+    void remove(Node node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      node.segment = null;
+      size--;
+    }
+
+    /**
+     * Finds the oldest node that was not referenced since it was last passed over, giving referenced nodes a
+     * second chance by moving them to the tail.
+     */
+    Node victim() {
+      // readers may mark nodes again while we go round, so give up after two rounds
+      for (int i = 2 * size; ; i--) {
+        Node node = head.next;
+        if (!node.referenced || i <= 0) {
+          return node;
+        }
+        node.referenced = false;
+        remove(node);
+        add(node);
+      }
+    }
+
+    void clear() {
+      head.prev = head;
+      head.next = head;
+      size = 0;
+    }
+  }
+
+}
@@ -0,0 +1,493 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * A compact binary serializer for result objects.
+ * <p>
+ * Beans are written property by property using the {@link Reflector} metadata of their class, which is looked up
+ * once per class. Class names are written once per value and then referred to by number, numbers use a variable
+ * length encoding, and shared or cyclic references are preserved. Strings, boxed primitives, big numbers, dates,
+ * byte arrays, enums, {@link ArrayList}, {@link HashMap}, {@link LinkedHashMap}, {@link HashSet} and
+ * {@link LinkedHashSet} are written directly.
+ * <p>
+ * A class is written as a bean when it has a no-arg constructor and is not a JDK class, an abstract type, a
+ * {@link Collection}, a {@link Map} or a lazy loading proxy. Only properties that have both a getter and a setter (or
+ * are fields) are copied. Any other value falls back to Java serialization and must then be
+ * {@link java.io.Serializable}.
+ */
+public class BeanSerializer implements CacheSerializer {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte SHORT = 5;
+  private static final byte BYTE = 6;
+  private static final byte BOOLEAN = 7;
+  private static final byte CHARACTER = 8;
+  private static final byte FLOAT = 9;
+  private static final byte DOUBLE = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte SQL_DATE = 14;
+  private static final byte SQL_TIME = 15;
+  private static final byte SQL_TIMESTAMP = 16;
+  private static final byte BYTES = 17;
+  private static final byte ARRAY_LIST = 18;
+  private static final byte HASH_MAP = 19;
+  private static final byte LINKED_HASH_MAP = 20;
+  private static final byte HASH_SET = 21;
+  private static final byte LINKED_HASH_SET = 22;
+  private static final byte ENUM = 23;
+  private static final byte BEAN = 24;
+  private static final byte JAVA = 25;
+
+  private static final BeanType NOT_A_BEAN = new BeanType(null, new String[0], new Invoker[0], new Invoker[0],
+      new boolean[0]);
+
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private final ConcurrentMap<Class<?>, BeanType> beanTypes = new ConcurrentHashMap<>();
+  private final JavaSerializer javaSerializer = new JavaSerializer();
+
+  @Override
+  public byte[] serialize(Object value) {
+    try {
+      Writer writer = new Writer();
+      writer.writeValue(value);
+      return writer.out.toByteArray();
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    try {
+      return new Reader(bytes).readValue();
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private BeanType getBeanType(Class<?> type) {
+    BeanType beanType = beanTypes.get(type);
+    if (beanType == null) {
+      beanType = beanTypes.computeIfAbsent(type, this::createBeanType);
+    }
+    return beanType;
+  }
+
+  private BeanType createBeanType(Class<?> type) {
+    if (type.isArray() || type.isInterface() || type.isEnum() || Modifier.isAbstract(type.getModifiers())
+        || type.getName().startsWith("java.") || WriteReplaceInterface.class.isAssignableFrom(type)
+        || Proxy.isProxyClass(type)) {
+      return NOT_A_BEAN;
+    }
+    // 集合的元素存放在 JDK 父类的字段里, 按属性复制会得到空集合
+    if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+      return NOT_A_BEAN;
+    }
+    Reflector reflector = reflectorFactory.findForClass(type);
+    if (!reflector.hasDefaultConstructor()) {
+      return NOT_A_BEAN;
+    }
+    List<String> names = new ArrayList<>();
+    for (String name : reflector.getGetablePropertyNames()) {
+      if (reflector.hasSetter(name)) {
+        names.add(name);
+      }
+    }
+    String[] properties = names.toArray(new String[0]);
+    Arrays.sort(properties);
+    Invoker[] getters = new Invoker[properties.length];
+    Invoker[] setters = new Invoker[properties.length];
+    boolean[] primitives = new boolean[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      getters[i] = reflector.getGetInvoker(properties[i]);
+      setters[i] = reflector.getSetInvoker(properties[i]);
+      primitives[i] = reflector.getSetterType(properties[i]).isPrimitive();
+    }
+    return new BeanType(reflector.getDefaultConstructor(), properties, getters, setters, primitives);
+  }
+
+  private static final class BeanType {
+    private final Constructor<?> constructor;
+    private final String[] properties;
+    private final Invoker[] getters;
+    private final Invoker[] setters;
+    private final boolean[] primitives;
+
+    BeanType(Constructor<?> constructor, String[] properties, Invoker[] getters, Invoker[] setters,
+        boolean[] primitives) {
+      this.constructor = constructor;
+      this.properties = properties;
+      this.getters = getters;
+      this.setters = setters;
+      this.primitives = primitives;
+    }
+  }
+
+  private final class Writer {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    void writeValue(Object value) throws Exception {
+      if (value == null) {
+        out.write(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        out.write(STRING);
+        writeString((String) value);
+      } else if (type == Integer.class) {
+        out.write(INTEGER);
+        writeVarLong(zigZag((Integer) value));
+      } else if (type == Long.class) {
+        out.write(LONG);
+        writeVarLong(zigZag((Long) value));
+      } else if (type == Short.class) {
+        out.write(SHORT);
+        writeVarLong(zigZag((Short) value));
+      } else if (type == Byte.class) {
+        out.write(BYTE);
+        out.write((Byte) value);
+      } else if (type == Boolean.class) {
+        out.write(BOOLEAN);
+        out.write((Boolean) value ? 1 : 0);
+      } else if (type == Character.class) {
+        out.write(CHARACTER);
+        writeVarLong((Character) value);
+      } else if (type == Float.class) {
+        out.write(FLOAT);
+        writeFixedLong(Float.floatToIntBits((Float) value), 4);
+      } else if (type == Double.class) {
+        out.write(DOUBLE);
+        writeFixedLong(Double.doubleToLongBits((Double) value), 8);
+      } else if (type == BigDecimal.class) {
+        out.write(BIG_DECIMAL);
+        writeVarLong(zigZag(((BigDecimal) value).scale()));
+        writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+      } else if (type == BigInteger.class) {
+        out.write(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == java.util.Date.class) {
+        out.write(DATE);
+        writeVarLong(zigZag(((java.util.Date) value).getTime()));
+      } else if (type == java.sql.Date.class) {
+        out.write(SQL_DATE);
+        writeVarLong(zigZag(((java.sql.Date) value).getTime()));
+      } else if (type == java.sql.Time.class) {
+        out.write(SQL_TIME);
+        writeVarLong(zigZag(((java.sql.Time) value).getTime()));
+      } else if (type == java.sql.Timestamp.class) {
+        out.write(SQL_TIMESTAMP);
+        writeVarLong(zigZag(((java.sql.Timestamp) value).getTime()));
+        writeVarLong(((java.sql.Timestamp) value).getNanos());
+      } else if (type == byte[].class) {
+        out.write(BYTES);
+        writeBytes((byte[]) value);
+      } else if (value instanceof Enum) {
+        out.write(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else {
+        writeObject(type, value);
+      }
+    }
+
+    private void writeObject(Class<?> type, Object value) throws Exception {
+      Integer reference = references.get(value);
+      if (reference != null) {
+        out.write(REFERENCE);
+        writeVarLong(reference);
+        return;
+      }
+      if (type == ArrayList.class) {
+        references.put(value, references.size());
+        out.write(ARRAY_LIST);
+        writeElements((Collection<?>) value);
+      } else if (type == HashSet.class || type == LinkedHashSet.class) {
+        references.put(value, references.size());
+        out.write(type == HashSet.class ? HASH_SET : LINKED_HASH_SET);
+        writeElements((Collection<?>) value);
+      } else if (type == HashMap.class || type == LinkedHashMap.class) {
+        references.put(value, references.size());
+        out.write(type == HashMap.class ? HASH_MAP : LINKED_HASH_MAP);
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeValue(entry.getKey());
+          writeValue(entry.getValue());
+        }
+      } else {
+        BeanType beanType = getBeanType(type);
+        if (beanType == NOT_A_BEAN) {
+          out.write(JAVA);
+          writeBytes(javaSerializer.serialize(value));
+          return;
+        }
+        references.put(value, references.size());
+        out.write(BEAN);
+        writeClass(type);
+        for (Invoker getter : beanType.getters) {
+          writeValue(getter.invoke(value, null));
+        }
+      }
+    }
+
+    private void writeElements(Collection<?> collection) throws Exception {
+      writeVarLong(collection.size());
+      for (Object element : collection) {
+        writeValue(element);
+      }
+    }
+
+    private void writeClass(Class<?> type) {
+      Integer id = classes.get(type);
+      if (id != null) {
+        writeVarLong(id + 1);
+      } else {
+        writeVarLong(0);
+        writeString(type.getName());
+        classes.put(type, classes.size());
+      }
+    }
+
+    private void writeString(String value) {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeFixedLong(long value, int length) {
+      for (int i = length - 1; i >= 0; i--) {
+        out.write((int) (value >>> (i * 8)));
+      }
+    }
+
+    private void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+
+    private long zigZag(long value) {
+      return (value << 1) ^ (value >> 63);
+    }
+  }
+
+  private final class Reader {
+    private final byte[] bytes;
+    private int position;
+    private final List<Object> references = new ArrayList<>();
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object readValue() throws Exception {
+      byte tag = bytes[position++];
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return references.get((int) readVarLong());
+        case STRING:
+          return readString();
+        case INTEGER:
+          return (int) unZigZag(readVarLong());
+        case LONG:
+          return unZigZag(readVarLong());
+        case SHORT:
+          return (short) unZigZag(readVarLong());
+        case BYTE:
+          return bytes[position++];
+        case BOOLEAN:
+          return bytes[position++] != 0;
+        case CHARACTER:
+          return (char) readVarLong();
+        case FLOAT:
+          return Float.intBitsToFloat((int) readFixedLong(4));
+        case DOUBLE:
+          return Double.longBitsToDouble(readFixedLong(8));
+        case BIG_DECIMAL:
+          int scale = (int) unZigZag(readVarLong());
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new java.util.Date(unZigZag(readVarLong()));
+        case SQL_DATE:
+          return new java.sql.Date(unZigZag(readVarLong()));
+        case SQL_TIME:
+          return new java.sql.Time(unZigZag(readVarLong()));
+        case SQL_TIMESTAMP:
+          java.sql.Timestamp timestamp = new java.sql.Timestamp(unZigZag(readVarLong()));
+          timestamp.setNanos((int) readVarLong());
+          return timestamp;
+        case BYTES:
+          return readBytes();
+        case ENUM:
+          Class enumType = readClass();
+          return Enum.valueOf(enumType, readString());
+        case ARRAY_LIST:
+          int listSize = (int) readVarLong();
+          return readElements(new ArrayList<>(listSize), listSize);
+        case HASH_SET:
+          int setSize = (int) readVarLong();
+          return readElements(new HashSet<>(Math.max((int) (setSize / .75f) + 1, 16)), setSize);
+        case LINKED_HASH_SET:
+          int linkedSetSize = (int) readVarLong();
+          return readElements(new LinkedHashSet<>(Math.max((int) (linkedSetSize / .75f) + 1, 16)), linkedSetSize);
+        case HASH_MAP:
+          return readEntries(new HashMap<>());
+        case LINKED_HASH_MAP:
+          return readEntries(new LinkedHashMap<>());
+        case BEAN:
+          return readBean(getBeanType(readClass()));
+        case JAVA:
+          return javaSerializer.deserialize(readBytes());
+        default:
+          throw new CacheException("Error deserializing object.  Cause: unknown tag " + tag);
+      }
+    }
+
+    private Object readElements(Collection<Object> collection, int size) throws Exception {
+      references.add(collection);
+      for (int i = 0; i < size; i++) {
+        collection.add(readValue());
+      }
+      return collection;
+    }
+
+    private Object readEntries(Map<Object, Object> map) throws Exception {
+      references.add(map);
+      int size = (int) readVarLong();
+      for (int i = 0; i < size; i++) {
+        Object key = readValue();
+        map.put(key, readValue());
+      }
+      return map;
+    }
+
+    private Object readBean(BeanType beanType) throws Exception {
+      Object bean = beanType.constructor.newInstance();
+      references.add(bean);
+      Object[] args = new Object[1];
+      for (int i = 0; i < beanType.setters.length; i++) {
+        Object value = readValue();
+        if (value != null || !beanType.primitives[i]) {
+          args[0] = value;
+          beanType.setters[i].invoke(bean, args);
+        }
+      }
+      return bean;
+    }
+
+    private Class<?> readClass() throws ClassNotFoundException {
+      int id = (int) readVarLong();
+      if (id > 0) {
+        return classes.get(id - 1);
+      }
+      Class<?> type = Resources.classForName(readString());
+      classes.add(type);
+      return type;
+    }
+
+    private String readString() {
+      int length = (int) readVarLong();
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    private byte[] readBytes() {
+      int length = (int) readVarLong();
+      byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+      position += length;
+      return value;
+    }
+
+    private long readFixedLong(int length) {
+      long value = 0;
+      for (int i = 0; i < length; i++) {
+        value = (value << 8) | (bytes[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    private long unZigZag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+
+}
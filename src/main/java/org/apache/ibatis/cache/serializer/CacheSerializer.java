@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+/**
+ * Turns cached values into bytes and back. Used by the {@link org.apache.ibatis.cache.decorators.SerializedCache}
+ * and the {@link org.apache.ibatis.cache.impl.OffHeapCache}.
+ * <p>
+ * Implementations must be thread-safe and have a public no-arg constructor so they can be selected with the
+ * {@code serializer} cache property.
+ */
+public interface CacheSerializer {
+
+  /**
+   * @param value The value to store, may be null
+   * @return The serialized value
+   */
+  byte[] serialize(Object value);
+
+  /**
+   * @param bytes Bytes returned by {@link #serialize(Object)}
+   * @return A copy of the value that was serialized
+   */
+  Object deserialize(byte[] bytes);
+
+}
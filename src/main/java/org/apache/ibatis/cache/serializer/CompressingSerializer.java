@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Compresses the output of another serializer when it is larger than a threshold.
+ * <p>
+ * The first byte of the result tells whether the rest is deflated, so small values only cost one extra byte.
+ */
+public class CompressingSerializer implements CacheSerializer {
+
+  private static final byte RAW = 0;
+  private static final byte DEFLATED = 1;
+
+  private final CacheSerializer delegate;
+  private final int threshold;
+
+  /**
+   * @param delegate The serializer whose output is compressed
+   * @param threshold The size in bytes from which values are compressed
+   */
+  public CompressingSerializer(CacheSerializer delegate, int threshold) {
+    this.delegate = delegate;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    byte[] bytes = delegate.serialize(value);
+    if (bytes.length < threshold) {
+      byte[] result = new byte[bytes.length + 1];
+      result[0] = RAW;
+      System.arraycopy(bytes, 0, result, 1, bytes.length);
+      return result;
+    }
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+      out.write(DEFLATED);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    if (bytes[0] == RAW) {
+      return delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, 1, bytes.length - 1);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new CacheException("Error inflating cached value.  Cause: truncated data");
+        }
+        out.write(buffer, 0, length);
+      }
+      return delegate.deserialize(out.toByteArray());
+    } catch (DataFormatException e) {
+      throw new CacheException("Error inflating cached value.  Cause: " + e, e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * The interfaces to stream the items of a {@link Cursor} under the control of the consumer, with the same methods and
+ * rules as {@code java.util.concurrent.Flow} and the Reactive Streams API so they adapt to either with a method
+ * reference per call.
+ * <p>
+ * Items are only read from the database while the subscriber has requested more than it received, so a scan that
+ * waits for its consumer holds no thread.
+ *
+ * @since 3.5.4
+ * @see org.apache.ibatis.session.SqlSession#selectPublisher(String, Object, org.apache.ibatis.session.RowBounds, java.util.concurrent.Executor)
+ */
+public final class CursorFlow {
+
+  private CursorFlow() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * A source of items that are sent to a subscriber as it requests them.
+   *
+   * @param <T> the item type
+   */
+  @FunctionalInterface
+  public interface Publisher<T> {
+
+    /**
+     * Starts sending items to the subscriber, calling {@link Subscriber#onSubscribe(Subscription)} first.
+     *
+     * @param subscriber the subscriber
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+  }
+
+  /**
+   * A receiver of items. Its methods are called one at a time, though not always by the same thread.
+   *
+   * @param <T> the item type
+   */
+  public interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  /**
+   * The link between a publisher and a subscriber.
+   */
+  public interface Subscription {
+
+    /**
+     * Adds to the number of items the subscriber is ready to receive.
+     *
+     * @param n a positive number of items, {@code Long.MAX_VALUE} for no limit
+     */
+    void request(long n);
+
+    /**
+     * Stops sending items and releases the resources held, e.g. closes the cursor.
+     */
+    void cancel();
+  }
+
+}
@@ -0,0 +1,232 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Publishes the items of a cursor opened when the first items are requested.
+ * <p>
+ * Items are read and sent by tasks run on the given executor, never by the thread calling
+ * {@link CursorFlow.Subscription#request(long)}. Only one task runs at a time, and a task gives up its thread after
+ * {@code chunkSize} items, normally the fetch size of the statement, so a task waits for the database at most once
+ * and many scans can share a few threads. No task is scheduled while the subscriber has nothing requested.
+ * <p>
+ * The cursor is closed when it is consumed, fails or the subscription is cancelled. A subscriber throwing from
+ * {@code onNext} cancels its subscription, and an executor rejecting a task fails it through {@code onError}. The
+ * session the cursor was opened by must stay open until then. Only one subscriber is accepted.
+ *
+ * @since 3.5.4
+ */
+public class DefaultCursorPublisher<T> implements CursorFlow.Publisher<T> {
+
+  private static final Log log = LogFactory.getLog(DefaultCursorPublisher.class);
+
+  private static final int DEFAULT_CHUNK_SIZE = 256;
+
+  private final Supplier<Cursor<T>> cursorOpener;
+  private final Executor executor;
+  private final int chunkSize;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * @param cursorOpener opens the cursor, called by the first task
+   * @param executor runs the tasks reading the cursor
+   * @param chunkSize the number of items a task sends before giving up its thread
+   */
+  public DefaultCursorPublisher(Supplier<Cursor<T>> cursorOpener, Executor executor, int chunkSize) {
+    this.cursorOpener = cursorOpener;
+    this.executor = executor;
+    this.chunkSize = Math.max(chunkSize, 1);
+  }
+
+  /**
+   * Returns the number of items a task should send for a statement: its fetch size, or the default fetch size, so a
+   * task reads about one round trip of rows.
+   */
+  public static int chunkSizeOf(MappedStatement ms) {
+    Integer fetchSize = ms.getFetchSize() != null ? ms.getFetchSize() : ms.getConfiguration().getDefaultFetchSize();
+    return fetchSize != null && fetchSize > 0 ? fetchSize : DEFAULT_CHUNK_SIZE;
+  }
+
+  @Override
+  public void subscribe(CursorFlow.Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new CursorFlow.Subscription() {
+        @Override
+        public void request(long n) {
+          // nothing to send
+        }
+
+        @Override
+        public void cancel() {
+          // nothing to release
+        }
+      });
+      subscriber.onError(new IllegalStateException("The cursor can only be published to one subscriber."));
+      return;
+    }
+    subscriber.onSubscribe(new CursorSubscription(subscriber));
+  }
+
+  private class CursorSubscription implements CursorFlow.Subscription, Runnable {
+
+    private final CursorFlow.Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    // 已发出但还没处理的信号数, 大于 0 时有且只有一个任务在运行或等待运行
+    private final AtomicInteger signals = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+
+    // 以下字段只由当前任务访问, signals 保证前后任务之间可见
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    // 请求线程在任务被拒绝时也会读取
+    private volatile boolean done;
+
+    CursorSubscription(CursorFlow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("The number of requested items must be positive but was " + n + ".");
+      } else {
+        requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+      }
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      signal();
+    }
+
+    private void signal() {
+      if (signals.getAndIncrement() == 0) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          // 没有任务在运行, 由当前线程结束订阅; signals 不再归零, 之后的信号都被忽略
+          if (!done) {
+            finish();
+            if (!cancelled) {
+              subscriber.onError(e);
+            }
+          }
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      int sent = 0;
+      int missed = signals.get();
+      for (;;) {
+        while (!done) {
+          if (cancelled) {
+            finish();
+            break;
+          }
+          Throwable error = invalidRequest;
+          if (error != null) {
+            finish();
+            subscriber.onError(error);
+            break;
+          }
+          long demand = requested.get();
+          if (demand == 0) {
+            break;
+          }
+          if (sent == chunkSize) {
+            // 让出线程, 剩下的请求由新任务继续; signals 未归零, 期间不会启动别的任务
+            try {
+              executor.execute(this);
+              return;
+            } catch (RejectedExecutionException e) {
+              finish();
+              subscriber.onError(e);
+              break;
+            }
+          }
+          T item;
+          try {
+            if (iterator == null) {
+              cursor = cursorOpener.get();
+              iterator = cursor.iterator();
+            }
+            if (!iterator.hasNext()) {
+              finish();
+              subscriber.onComplete();
+              break;
+            }
+            item = iterator.next();
+          } catch (RuntimeException e) {
+            finish();
+            subscriber.onError(e);
+            break;
+          }
+          if (demand != Long.MAX_VALUE) {
+            requested.decrementAndGet();
+          }
+          sent++;
+          try {
+            subscriber.onNext(item);
+          } catch (RuntimeException e) {
+            // 订阅者不应抛出异常, 视为取消
+            log.debug("The subscriber failed to handle an item, cancelling the subscription.  Cause: " + e);
+            finish();
+            break;
+          }
+        }
+        missed = signals.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    private void finish() {
+      done = true;
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException e) {
+          log.debug("Could not close the cursor.  Cause: " + e);
+        }
+      }
+    }
+  }
+
+}
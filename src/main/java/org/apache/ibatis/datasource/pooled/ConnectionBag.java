@@ -0,0 +1,296 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free holder of the connections used by {@link PooledDataSource} when
+ * {@link PooledDataSource#setPoolLockFreeEnabled(boolean) poolLockFreeEnabled} is on.
+ * <p>
+ * Idle connections live in a shared concurrent deque (most recently returned first). Each thread remembers the
+ * connection it returned last and tries that one before scanning the shared deque. Threads that have to wait are
+ * served in arrival order through a fair hand-off queue. Ownership of a {@link PooledConnection} is decided by a
+ * CAS on its bag state, so no monitor is taken on the borrow or return path.
+ * <p>
+ * Every open connection holds a slot, whether it is active, idle or being handed back. A slot is reserved before a
+ * connection is opened and given back only when the connection is discarded, so the pool never holds more
+ * connections than the limit passed to {@link #reserveSlot(int)}.
+ */
+class ConnectionBag {
+
+  private final Deque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+  private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<PooledConnection> lastReturned = new ThreadLocal<>();
+  private final SynchronousQueue<PooledConnection> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicInteger slotCount = new AtomicInteger();
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  /**
+   * Takes an idle connection, preferring the one the current thread returned last.
+   *
+   * @return the connection, or null if no idle connection is available
+   */
+  PooledConnection borrow() {
+    PooledConnection conn = lastReturned.get();
+    if (conn != null) {
+      lastReturned.remove();
+      if (take(conn)) {
+        return conn;
+      }
+    }
+    for (PooledConnection candidate : idleConnections) {
+      if (take(candidate)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Waits until a connection is returned to the pool or handed off by a returning thread.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return the connection, or null if the timeout elapsed
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  PooledConnection await(long timeout) throws InterruptedException {
+    waiters.incrementAndGet();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+      do {
+        PooledConnection conn = borrow();
+        if (conn != null) {
+          return conn;
+        }
+        conn = handoffQueue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (conn == null) {
+          return null;
+        }
+        if (take(conn)) {
+          return conn;
+        }
+      } while (deadline - System.nanoTime() > 0);
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Makes a connection available again, handing it directly to a waiting thread when there is one.
+   *
+   * @param conn the idle connection
+   * @param maximumIdle the maximum number of idle connections
+   * @return false if the connection was not accepted because the pool already holds enough idle connections, the
+   *         caller then closes it and gives back its slot
+   */
+  boolean requite(PooledConnection conn, int maximumIdle) {
+    if (waiters.get() > 0 && handoffQueue.offer(conn)) {
+      return true;
+    }
+    if (idleCount.incrementAndGet() > maximumIdle) {
+      idleCount.decrementAndGet();
+      return false;
+    }
+    idleConnections.offerFirst(conn);
+    // a waiter may have missed the connection while it was being added, keep offering it until somebody owns it
+    for (int i = 0; waiters.get() > 0 && conn.getBagState() == PooledConnection.BAG_STATE_IDLE; i++) {
+      if (handoffQueue.offer(conn)) {
+        return true;
+      }
+      if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    lastReturned.set(conn);
+    return true;
+  }
+
+  /**
+   * Reserves a slot for a new active connection if the number of open connections is below the limit.
+   *
+   * @param maximumActive the maximum number of open connections
+   * @return true if the slot was reserved
+   */
+  boolean reserveSlot(int maximumActive) {
+    if (!reserveIdleSlot(maximumActive)) {
+      return false;
+    }
+    activeCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Reserves a slot for a new idle connection if the number of open connections is below the limit.
+   *
+   * @param maximumActive the maximum number of open connections
+   * @return true if the slot was reserved
+   */
+  boolean reserveIdleSlot(int maximumActive) {
+    for (;;) {
+      int count = slotCount.get();
+      if (count >= maximumActive) {
+        return false;
+      }
+      if (slotCount.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Gives back the slot of a connection that was obtained by {@link #borrow()}, {@link #await(long)} or
+   * {@link #reserveSlot(int)} and is discarded without being activated.
+   */
+  void releaseSlot() {
+    activeCount.decrementAndGet();
+    slotCount.decrementAndGet();
+  }
+
+  /**
+   * Gives back the slot of a connection that was taken out of the bag by {@link #release(PooledConnection)},
+   * {@link #remove(PooledConnection)} or a drain, or reserved by {@link #reserveIdleSlot(int)}, and is closed
+   * instead of being made available again.
+   */
+  void discard() {
+    slotCount.decrementAndGet();
+  }
+
+  /**
+   * Registers a connection that was handed out to a borrower, using a slot the caller already holds.
+   *
+   * @param conn the connection
+   */
+  void activate(PooledConnection conn) {
+    conn.setBagState(PooledConnection.BAG_STATE_IN_USE);
+    activeConnections.add(conn);
+  }
+
+  /**
+   * Removes a connection from the active set on behalf of the thread that checked it out. The slot is kept by the
+   * caller, which either makes the connection available again with {@link #requite(PooledConnection, int)} or closes
+   * it and calls {@link #discard()}.
+   *
+   * @param conn the connection
+   * @return false if the connection was already claimed as overdue or removed by a forced close
+   */
+  boolean release(PooledConnection conn) {
+    if (!conn.compareAndSetBagState(PooledConnection.BAG_STATE_IN_USE, PooledConnection.BAG_STATE_REMOVED)) {
+      return false;
+    }
+    activeConnections.remove(conn);
+    activeCount.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Takes an overdue connection away from the thread that checked it out. The slot is kept by the caller.
+   *
+   * @param conn the overdue connection
+   * @return false if the connection was returned or claimed by another thread in the meantime
+   */
+  boolean claim(PooledConnection conn) {
+    if (!conn.compareAndSetBagState(PooledConnection.BAG_STATE_IN_USE, PooledConnection.BAG_STATE_REMOVED)) {
+      return false;
+    }
+    activeConnections.remove(conn);
+    return true;
+  }
+
+  PooledConnection getOldestActiveConnection() {
+    PooledConnection oldest = null;
+    for (PooledConnection conn : activeConnections) {
+      if (oldest == null || conn.getCheckoutTimestamp() < oldest.getCheckoutTimestamp()) {
+        oldest = conn;
+      }
+    }
+    return oldest;
+  }
+
+  List<PooledConnection> drainActiveConnections() {
+    List<PooledConnection> drained = new ArrayList<>();
+    for (PooledConnection conn : activeConnections) {
+      if (release(conn)) {
+        drained.add(conn);
+      }
+    }
+    return drained;
+  }
+
+  List<PooledConnection> drainIdleConnections() {
+    List<PooledConnection> drained = new ArrayList<>();
+    for (PooledConnection conn : idleConnections) {
+      if (remove(conn)) {
+        drained.add(conn);
+      }
+    }
+    return drained;
+  }
+
+  List<PooledConnection> getIdleConnections() {
+    return new ArrayList<>(idleConnections);
+  }
+
+  /**
+   * Removes an idle connection from the bag without handing it to a borrower. The slot is kept by the caller.
+   *
+   * @param conn the idle connection
+   * @return false if the connection was borrowed or removed by another thread in the meantime
+   */
+  boolean remove(PooledConnection conn) {
+    if (!conn.compareAndSetBagState(PooledConnection.BAG_STATE_IDLE, PooledConnection.BAG_STATE_REMOVED)) {
+      return false;
+    }
+    if (idleConnections.removeFirstOccurrence(conn)) {
+      idleCount.decrementAndGet();
+    }
+    return true;
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  int getActiveCount() {
+    return activeCount.get();
+  }
+
+  private boolean take(PooledConnection conn) {
+    if (!conn.compareAndSetBagState(PooledConnection.BAG_STATE_IDLE, PooledConnection.BAG_STATE_IN_USE)) {
+      return false;
+    }
+    if (idleConnections.removeFirstOccurrence(conn)) {
+      idleCount.decrementAndGet();
+    }
+    activeCount.incrementAndGet();
+    return true;
+  }
+
+}
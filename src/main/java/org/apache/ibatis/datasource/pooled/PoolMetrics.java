@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.util.LatencyHistogram;
+
+/**
+ * Latency histograms, gauges and counters of a {@link PooledDataSource}.
+ * <p>
+ * Recording never locks or allocates, so the metrics are always collected. Read them through
+ * {@link PooledDataSource#getPoolMetrics()}.
+ */
+public class PoolMetrics {
+
+  private final PoolState state;
+  private final LatencyHistogram checkoutWaitTime = new LatencyHistogram();
+  private final LatencyHistogram checkoutHoldTime = new LatencyHistogram();
+  private final LatencyHistogram pingTime = new LatencyHistogram();
+  protected final LongAdder waitTimeoutCount = new LongAdder();
+  protected final LongAdder createdConnectionCount = new LongAdder();
+  protected final LongAdder closedConnectionCount = new LongAdder();
+  protected final LongAdder statementCacheHitCount = new LongAdder();
+  protected final LongAdder statementCacheMissCount = new LongAdder();
+
+  public PoolMetrics(PoolState state) {
+    this.state = state;
+  }
+
+  /**
+   * Time between asking for a connection and getting it, including pings and waiting for a free connection.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getCheckoutWaitTime() {
+    return checkoutWaitTime;
+  }
+
+  /**
+   * Time a connection was checked out before it was returned or claimed as overdue.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getCheckoutHoldTime() {
+    return checkoutHoldTime;
+  }
+
+  /**
+   * Time spent running the ping query.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getPingTime() {
+    return pingTime;
+  }
+
+  public int getActiveConnectionCount() {
+    return state.getActiveConnectionCount();
+  }
+
+  public int getIdleConnectionCount() {
+    return state.getIdleConnectionCount();
+  }
+
+  /**
+   * The number of times a thread waited poolTimeToWait without getting a connection.
+   *
+   * @return the number of timeouts
+   */
+  public long getWaitTimeoutCount() {
+    return waitTimeoutCount.sum();
+  }
+
+  public long getCreatedConnectionCount() {
+    return createdConnectionCount.sum();
+  }
+
+  public long getClosedConnectionCount() {
+    return closedConnectionCount.sum();
+  }
+
+  public long getBadConnectionCount() {
+    return state.getBadConnectionCount();
+  }
+
+  public long getClaimedOverdueConnectionCount() {
+    return state.getClaimedOverdueConnectionCount();
+  }
+
+  /**
+   * The number of prepared statements reused from the statement caches of the connections.
+   *
+   * @return the number of hits
+   * @since 3.5.4
+   */
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.sum();
+  }
+
+  /**
+   * The number of prepared statements prepared because none was cached, 0 while poolMaximumCachedStatements is 0.
+   *
+   * @return the number of misses
+   * @since 3.5.4
+   */
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "PoolMetrics{active=" + getActiveConnectionCount()
+        + ", idle=" + getIdleConnectionCount()
+        + ", checkoutWaitTime={" + checkoutWaitTime
+        + "}, checkoutHoldTime={" + checkoutHoldTime
+        + "}, pingTime={" + pingTime
+        + "}, waitTimeouts=" + getWaitTimeoutCount()
+        + ", created=" + getCreatedConnectionCount()
+        + ", closed=" + getClosedConnectionCount()
+        + ", bad=" + getBadConnectionCount()
+        + ", claimedOverdue=" + getClaimedOverdueConnectionCount()
+        + ", statementCacheHits=" + getStatementCacheHitCount()
+        + ", statementCacheMisses=" + getStatementCacheMissCount()
+        + "}";
+  }
+
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 性能如何?
@@ -30,6 +31,8 @@ public class PoolState {
   protected final List<PooledConnection> idleConnections = new ArrayList<>();
   //活跃的连接
   protected final List<PooledConnection> activeConnections = new ArrayList<>();
+  //lock-free模式下的空闲/活跃连接
+  final ConnectionBag connectionBag = new ConnectionBag();
   protected long requestCount = 0;
   protected long accumulatedRequestTime = 0;
   protected long accumulatedCheckoutTime = 0;
@@ -38,55 +41,106 @@ public class PoolState {
   protected long accumulatedWaitTime = 0;
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
+  //lock-free模式下的统计数据使用分段计数器,无需持有state的锁即可更新,读取时与上面的字段相加
+  private final LongAdder lockFreeRequestCount = new LongAdder();
+  private final LongAdder lockFreeAccumulatedRequestTime = new LongAdder();
+  private final LongAdder lockFreeAccumulatedCheckoutTime = new LongAdder();
+  private final LongAdder lockFreeClaimedOverdueConnectionCount = new LongAdder();
+  private final LongAdder lockFreeAccumulatedCheckoutTimeOfOverdueConnections = new LongAdder();
+  private final LongAdder lockFreeAccumulatedWaitTime = new LongAdder();
+  private final LongAdder lockFreeHadToWaitCount = new LongAdder();
+  private final LongAdder lockFreeBadConnectionCount = new LongAdder();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
+  void addRequest(long requestTime) {
+    lockFreeRequestCount.increment();
+    lockFreeAccumulatedRequestTime.add(requestTime);
+  }
+
+  void addCheckoutTime(long checkoutTime) {
+    lockFreeAccumulatedCheckoutTime.add(checkoutTime);
+  }
+
+  void addClaimedOverdueConnection(long checkoutTime) {
+    lockFreeClaimedOverdueConnectionCount.increment();
+    lockFreeAccumulatedCheckoutTimeOfOverdueConnections.add(checkoutTime);
+    lockFreeAccumulatedCheckoutTime.add(checkoutTime);
+  }
+
+  void addHadToWait() {
+    lockFreeHadToWaitCount.increment();
+  }
+
+  void addWaitTime(long waitTime) {
+    lockFreeAccumulatedWaitTime.add(waitTime);
+  }
+
+  void addBadConnection() {
+    lockFreeBadConnectionCount.increment();
+  }
+
   public synchronized long getRequestCount() {
-    return requestCount;
+    return requestCount + lockFreeRequestCount.sum();
   }
 
   public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+    long requests = getRequestCount();
+    return requests == 0 ? 0 : (accumulatedRequestTime + lockFreeAccumulatedRequestTime.sum()) / requests;
   }
 
   public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+    long waits = getHadToWaitCount();
+    return waits == 0 ? 0 : (accumulatedWaitTime + lockFreeAccumulatedWaitTime.sum()) / waits;
 
   }
 
   public synchronized long getHadToWaitCount() {
-    return hadToWaitCount;
+    return hadToWaitCount + lockFreeHadToWaitCount.sum();
   }
 
   public synchronized long getBadConnectionCount() {
-    return badConnectionCount;
+    return badConnectionCount + lockFreeBadConnectionCount.sum();
   }
 
   public synchronized long getClaimedOverdueConnectionCount() {
-    return claimedOverdueConnectionCount;
+    return claimedOverdueConnectionCount + lockFreeClaimedOverdueConnectionCount.sum();
   }
 
   public synchronized long getAverageOverdueCheckoutTime() {
-    return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+    long claimed = getClaimedOverdueConnectionCount();
+    return claimed == 0 ? 0
+        : (accumulatedCheckoutTimeOfOverdueConnections + lockFreeAccumulatedCheckoutTimeOfOverdueConnections.sum()) / claimed;
   }
 
   public synchronized long getAverageCheckoutTime() {
-    return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+    long requests = getRequestCount();
+    return requests == 0 ? 0 : (accumulatedCheckoutTime + lockFreeAccumulatedCheckoutTime.sum()) / requests;
   }
 
 
-  public synchronized int getIdleConnectionCount() {
-    return idleConnections.size();
+  public int getIdleConnectionCount() {
+    if (dataSource.poolLockFreeEnabled) {
+      return connectionBag.getIdleCount();
+    }
+    synchronized (this) {
+      return idleConnections.size();
+    }
   }
 
-  public synchronized int getActiveConnectionCount() {
-    return activeConnections.size();
+  public int getActiveConnectionCount() {
+    if (dataSource.poolLockFreeEnabled) {
+      return connectionBag.getActiveCount();
+    }
+    synchronized (this) {
+      return activeConnections.size();
+    }
   }
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("\n===CONFINGURATION==============================================");
     builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
@@ -100,6 +154,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolLockFreeEnabled            ").append(dataSource.poolLockFreeEnabled);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 为什么是InvocationHandler?
@@ -31,9 +32,16 @@ import java.sql.SQLException;
 class PooledConnection implements InvocationHandler {
   //
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   //
   private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
 
+  static final int BAG_STATE_IDLE = 0;
+  static final int BAG_STATE_IN_USE = 1;
+  static final int BAG_STATE_REMOVED = 2;
+  private static final AtomicIntegerFieldUpdater<PooledConnection> BAG_STATE_UPDATER =
+    AtomicIntegerFieldUpdater.newUpdater(PooledConnection.class, "bagState");
+
   private final int hashCode;
   //记录当前连接所在的数据源对象，本次连接是有这个数据源创建的，关闭后也是回到这个数据源；
   private final PooledDataSource dataSource;
@@ -51,6 +59,10 @@ class PooledConnection implements InvocationHandler {
   private int connectionTypeCode;
   //连接是否有效
   private boolean valid;
+  //在ConnectionBag中的状态,只在lock-free模式下使用
+  private volatile int bagState;
+  //物理连接上缓存的 PreparedStatement, 重新包装连接时一起转移
+  private StatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -66,6 +78,8 @@ class PooledConnection implements InvocationHandler {
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+    int cachedStatements = dataSource.getPoolMaximumCachedStatements();
+    this.statementCache = cachedStatements > 0 ? new StatementCache(dataSource.getPoolMetrics(), cachedStatements) : null;
   }
 
   /**
@@ -86,6 +100,25 @@ class PooledConnection implements InvocationHandler {
     return valid && realConnection != null && dataSource.pingConnection(this);
   }
 
+  int getBagState() {
+    return bagState;
+  }
+
+  void setBagState(int bagState) {
+    this.bagState = bagState;
+  }
+
+  boolean compareAndSetBagState(int expect, int update) {
+    return BAG_STATE_UPDATER.compareAndSet(this, expect, update);
+  }
+
+  /**
+   * Takes over the cached statements of the previous wrapper of the same real connection.
+   */
+  void takeStatementCache(PooledConnection previous) {
+    this.statementCache = previous.statementCache;
+  }
+
   /**
    * Getter for the *real* connection that this wraps.
    *
@@ -256,6 +289,9 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();
       }
+      if (statementCache != null && PREPARE_STATEMENT.equals(methodName)) {
+        return statementCache.prepareStatement(realConnection, method, args);
+      }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
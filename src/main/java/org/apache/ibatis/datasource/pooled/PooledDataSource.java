@@ -27,7 +27,10 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -42,6 +45,8 @@ public class PooledDataSource implements DataSource {
 
   private final PoolState state = new PoolState(this);
 
+  private final PoolMetrics metrics = new PoolMetrics(state);
+
   private final UnpooledDataSource dataSource;
 
   // OPTIONAL CONFIGURATION FIELDS
@@ -53,6 +58,13 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected volatile boolean poolLockFreeEnabled;
+  protected int poolMaintenanceInterval;
+  protected int poolMaximumLifetime;
+  protected int poolMinimumIdleConnections;
+  protected int poolMaximumCachedStatements;
+
+  private volatile PoolHousekeeper housekeeper;
 
   private int expectedConnectionTypeCode;
 
@@ -244,6 +256,69 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * Switches the pool to lock-free mode. Connections are then kept in a concurrent bag instead of lists guarded by
+   * the {@link PoolState} monitor: a thread first tries the connection it returned last, then the shared idle
+   * connections, and finally waits for a connection to be handed off by a returning thread in arrival order.
+   *
+   * @param poolLockFreeEnabled True to borrow and return connections without locking the pool
+   * @since 3.5.4
+   */
+  public void setPoolLockFreeEnabled(boolean poolLockFreeEnabled) {
+    forceCloseAll();
+    this.poolLockFreeEnabled = poolLockFreeEnabled;
+  }
+
+  /**
+   * Runs pool maintenance on a background thread every this many milliseconds. The maintenance pings idle
+   * connections (following poolPingEnabled and poolPingConnectionsNotUsedFor), evicts connections older than
+   * poolMaximumLifetime and opens connections until poolMinimumIdleConnections are idle. While it is enabled,
+   * borrowing and returning a connection no longer runs the ping query.
+   *
+   * @param milliseconds the delay between two maintenance runs, 0 disables the maintenance
+   * @since 3.5.4
+   */
+  public void setPoolMaintenanceInterval(int milliseconds) {
+    stopHousekeeper();
+    this.poolMaintenanceInterval = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a physical connection is kept in the pool. Older connections are closed when they are returned
+   * or found idle by the pool maintenance.
+   *
+   * @param milliseconds the maximum lifetime, 0 means connections are kept forever
+   * @since 3.5.4
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle connections the pool maintenance keeps open.
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   * @since 3.5.4
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of prepared statements each physical connection keeps open after they are closed, so that sessions
+   * borrowing the connection later reuse them instead of preparing the same SQL again.
+   *
+   * @param poolMaximumCachedStatements the maximum number of cached statements per connection, 0 disables the cache
+   * @since 3.5.4
+   */
+  public void setPoolMaximumCachedStatements(int poolMaximumCachedStatements) {
+    this.poolMaximumCachedStatements = poolMaximumCachedStatements;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -311,10 +386,58 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isPoolLockFreeEnabled() {
+    return poolLockFreeEnabled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaintenanceInterval() {
+    return poolMaintenanceInterval;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaximumCachedStatements() {
+    return poolMaximumCachedStatements;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
   public void forceCloseAll() {
+    if (poolLockFreeEnabled) {
+      expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+      for (PooledConnection conn : state.connectionBag.drainActiveConnections()) {
+        discardConnection(conn);
+      }
+      for (PooledConnection conn : state.connectionBag.drainIdleConnections()) {
+        discardConnection(conn);
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("PooledDataSource forcefully closed/removed all connections.");
+      }
+      return;
+    }
     synchronized (state) {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       for (int i = state.activeConnections.size(); i > 0; i--) {
@@ -327,6 +450,7 @@ public class PooledDataSource implements DataSource {
             realConn.rollback();
           }
           realConn.close();
+          metrics.closedConnectionCount.increment();
         } catch (Exception e) {
           // ignore
         }
@@ -341,6 +465,7 @@ public class PooledDataSource implements DataSource {
             realConn.rollback();
           }
           realConn.close();
+          metrics.closedConnectionCount.increment();
         } catch (Exception e) {
           // ignore
         }
@@ -355,6 +480,39 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
+  /**
+   * Gets the latency histograms, gauges and counters of this pool.
+   *
+   * @return the pool metrics
+   * @since 3.5.4
+   */
+  public PoolMetrics getPoolMetrics() {
+    return metrics;
+  }
+
+  private void closeQuietly(PooledConnection conn) {
+    try {
+      conn.invalidate();
+
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+      metrics.closedConnectionCount.increment();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private void discardConnection(PooledConnection conn) {
+    closeQuietly(conn);
+    if (poolLockFreeEnabled) {
+      // 连接已关闭, 归还它在lock-free模式下占用的名额
+      state.connectionBag.discard();
+    }
+  }
+
   private int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
@@ -365,16 +523,23 @@ public class PooledDataSource implements DataSource {
   //检测当前 PooledDataSource 连接池中的空闲连接是否已经达到上限值。如果达到上限值，则 PooledConnection 无法放回到池中，正常关闭其底层的数据库连接即可。如果未达到上限值，则继续执行下一步。
   //将底层连接重新封装成 PooledConnection 对象，并添加到空闲连接集合（也就是前面提到的 idleConnections 集合），然后唤醒所有阻塞等待空闲连接的线程。
   protected void pushConnection(PooledConnection conn) throws SQLException {
+    if (poolLockFreeEnabled) {
+      pushConnectionLockFree(conn);
+      return;
+    }
     //对state加锁
     synchronized (state) {
       state.activeConnections.remove(conn);
       if (conn.isValid()) {
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn)) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          metrics.getCheckoutHoldTime().record(conn.getCheckoutTime(), TimeUnit.MILLISECONDS);
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.takeStatementCache(conn);
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -385,10 +550,12 @@ public class PooledDataSource implements DataSource {
           state.notifyAll();
         } else {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          metrics.getCheckoutHoldTime().record(conn.getCheckoutTime(), TimeUnit.MILLISECONDS);
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           conn.getRealConnection().close();
+          metrics.closedConnectionCount.increment();
           if (log.isDebugEnabled()) {
             log.debug("Closed connection " + conn.getRealHashCode() + ".");
           }
@@ -408,9 +575,16 @@ public class PooledDataSource implements DataSource {
   //检查活跃连接中是否有连接超时，如果有，则将超时的连接从活跃连接集合中移除，并重复步骤 2；如果没有，则执行下一步。
   //当前请求数据库连接的线程阻塞等待，并定期执行前面三步检测相应的分支是否可能获取连接。
   private PooledConnection popConnection(String username, String password) throws SQLException {
+    if (poolMaintenanceInterval > 0 && housekeeper == null) {
+      startHousekeeper();
+    }
+    if (poolLockFreeEnabled) {
+      return popConnectionLockFree(username, password);
+    }
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -427,6 +601,7 @@ public class PooledDataSource implements DataSource {
           if (state.activeConnections.size() < poolMaximumActiveConnections) {
             //创建一个新的连接
             conn = new PooledConnection(dataSource.getConnection(), this);
+            metrics.createdConnectionCount.increment();
             if (log.isDebugEnabled()) {
               log.debug("Created connection " + conn.getRealHashCode() + ".");
             }
@@ -440,6 +615,7 @@ public class PooledDataSource implements DataSource {
               state.claimedOverdueConnectionCount++;
               state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
               state.accumulatedCheckoutTime += longestCheckoutTime;
+              metrics.getCheckoutHoldTime().record(longestCheckoutTime, TimeUnit.MILLISECONDS);
               state.activeConnections.remove(oldestActiveConnection);
               //非autoCommit
               if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
@@ -460,6 +636,7 @@ public class PooledDataSource implements DataSource {
               }
               //创建新的连接
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              conn.takeStatementCache(oldestActiveConnection);
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
               //最老的连接无效
@@ -480,7 +657,11 @@ public class PooledDataSource implements DataSource {
                 long wt = System.currentTimeMillis();
                 //等待
                 state.wait(poolTimeToWait);
-                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+                long waited = System.currentTimeMillis() - wt;
+                state.accumulatedWaitTime += waited;
+                if (waited >= poolTimeToWait) {
+                  metrics.waitTimeoutCount.increment();
+                }
               } catch (InterruptedException e) {
                 break;
               }
@@ -499,6 +680,7 @@ public class PooledDataSource implements DataSource {
             state.activeConnections.add(conn);
             state.requestCount++;
             state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            metrics.getCheckoutWaitTime().record(System.nanoTime() - startNanos);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
@@ -528,6 +710,281 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+
+  private void pushConnectionLockFree(PooledConnection conn) throws SQLException {
+    ConnectionBag bag = state.connectionBag;
+    if (!bag.release(conn)) {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.addBadConnection();
+      return;
+    }
+    // 归还期间连接仍占用名额, 直到它重新空闲或被关闭, 以免其他线程趁机新建连接超出上限
+    boolean requited = false;
+    try {
+      if (!conn.isValid()) {
+        if (log.isDebugEnabled()) {
+          log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+        }
+        state.addBadConnection();
+        return;
+      }
+      state.addCheckoutTime(conn.getCheckoutTime());
+      metrics.getCheckoutHoldTime().record(conn.getCheckoutTime(), TimeUnit.MILLISECONDS);
+      if (conn.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(conn)) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+        newConn.takeStatementCache(conn);
+        newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+        newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        conn.invalidate();
+        requited = bag.requite(newConn, poolMaximumIdleConnections);
+        if (requited) {
+          if (log.isDebugEnabled()) {
+            log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+          }
+          return;
+        }
+      }
+      if (!conn.getRealConnection().getAutoCommit()) {
+        conn.getRealConnection().rollback();
+      }
+      conn.getRealConnection().close();
+      metrics.closedConnectionCount.increment();
+      if (log.isDebugEnabled()) {
+        log.debug("Closed connection " + conn.getRealHashCode() + ".");
+      }
+      conn.invalidate();
+    } finally {
+      if (!requited) {
+        bag.discard();
+      }
+    }
+  }
+
+  private PooledConnection popConnectionLockFree(String username, String password) throws SQLException {
+    ConnectionBag bag = state.connectionBag;
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      PooledConnection conn = bag.borrow();
+      if (conn != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+        }
+      } else if (bag.reserveSlot(poolMaximumActiveConnections)) {
+        try {
+          conn = new PooledConnection(dataSource.getConnection(), this);
+          metrics.createdConnectionCount.increment();
+        } catch (SQLException e) {
+          bag.releaseSlot();
+          throw e;
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + conn.getRealHashCode() + ".");
+        }
+      } else {
+        conn = claimOverdueConnection(bag);
+        if (conn == null) {
+          if (!countedWait) {
+            state.addHadToWait();
+            countedWait = true;
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+          }
+          long wt = System.currentTimeMillis();
+          try {
+            conn = bag.await(poolTimeToWait);
+          } catch (InterruptedException e) {
+            break;
+          }
+          state.addWaitTime(System.currentTimeMillis() - wt);
+          if (conn == null) {
+            metrics.waitTimeoutCount.increment();
+            continue;
+          }
+        }
+      }
+      if (conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        bag.activate(conn);
+        state.addRequest(System.currentTimeMillis() - t);
+        metrics.getCheckoutWaitTime().record(System.nanoTime() - startNanos);
+        return conn;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      bag.releaseSlot();
+      state.addBadConnection();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("PooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("PooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    }
+    throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+  }
+
+  private PooledConnection claimOverdueConnection(ConnectionBag bag) {
+    PooledConnection oldestActiveConnection = bag.getOldestActiveConnection();
+    if (oldestActiveConnection == null) {
+      return null;
+    }
+    long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+    if (longestCheckoutTime <= poolMaximumCheckoutTime || !bag.claim(oldestActiveConnection)) {
+      return null;
+    }
+    state.addClaimedOverdueConnection(longestCheckoutTime);
+    metrics.getCheckoutHoldTime().record(longestCheckoutTime, TimeUnit.MILLISECONDS);
+    try {
+      if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+        oldestActiveConnection.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      log.debug("Bad connection. Could not roll back");
+    }
+    PooledConnection conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+    conn.takeStatementCache(oldestActiveConnection);
+    conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+    conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+    oldestActiveConnection.invalidate();
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+    return conn;
+  }
+
+
+  private boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
+  private synchronized void startHousekeeper() {
+    if (housekeeper == null) {
+      housekeeper = PoolHousekeeper.start(this, poolMaintenanceInterval);
+    }
+  }
+
+  private synchronized void stopHousekeeper() {
+    if (housekeeper != null) {
+      housekeeper.stop();
+      housekeeper = null;
+    }
+  }
+
+  /**
+   * Validates and evicts idle connections, then tops the pool up to poolMinimumIdleConnections. Called by the
+   * pool maintenance thread.
+   */
+  void maintain() {
+    for (PooledConnection conn : getIdleConnections()) {
+      if (!removeIdleConnection(conn)) {
+        continue;
+      }
+      if (isExpired(conn)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted connection " + conn.getRealHashCode() + " that exceeded its maximum lifetime.");
+        }
+        discardConnection(conn);
+      } else if (pingConnection(conn, true)) {
+        if (!returnIdleConnection(conn)) {
+          discardConnection(conn);
+        }
+      } else {
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted bad idle connection " + conn.getRealHashCode() + ".");
+        }
+        state.addBadConnection();
+        discardConnection(conn);
+      }
+    }
+    while (needsIdleConnection()) {
+      if (!reserveIdleConnection()) {
+        return;
+      }
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+        metrics.createdConnectionCount.increment();
+      } catch (SQLException e) {
+        if (poolLockFreeEnabled) {
+          state.connectionBag.discard();
+        }
+        log.warn("Could not open an idle connection: " + e.getMessage());
+        return;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+      }
+      if (!returnIdleConnection(conn)) {
+        discardConnection(conn);
+        return;
+      }
+    }
+  }
+
+  private List<PooledConnection> getIdleConnections() {
+    if (poolLockFreeEnabled) {
+      return state.connectionBag.getIdleConnections();
+    }
+    synchronized (state) {
+      return new ArrayList<>(state.idleConnections);
+    }
+  }
+
+  private boolean removeIdleConnection(PooledConnection conn) {
+    if (poolLockFreeEnabled) {
+      return state.connectionBag.remove(conn);
+    }
+    synchronized (state) {
+      return state.idleConnections.remove(conn);
+    }
+  }
+
+  private boolean returnIdleConnection(PooledConnection conn) {
+    if (poolLockFreeEnabled) {
+      conn.setBagState(PooledConnection.BAG_STATE_IDLE);
+      return state.connectionBag.requite(conn, poolMaximumIdleConnections);
+    }
+    synchronized (state) {
+      if (state.idleConnections.size() >= poolMaximumIdleConnections) {
+        return false;
+      }
+      state.idleConnections.add(conn);
+      state.notifyAll();
+      return true;
+    }
+  }
+
+  private boolean reserveIdleConnection() {
+    // lock-free模式下先占用名额, 再新建连接
+    return !poolLockFreeEnabled || state.connectionBag.reserveIdleSlot(poolMaximumActiveConnections);
+  }
+
+  private boolean needsIdleConnection() {
+    int idle = state.getIdleConnectionCount();
+    return idle < poolMinimumIdleConnections && idle + state.getActiveConnectionCount() < poolMaximumActiveConnections;
+  }
+
   /**
    * Method to check to see if a connection is still usable
    *
@@ -535,6 +992,11 @@ public class PooledDataSource implements DataSource {
    * @return True if the connection is still usable
    */
   protected boolean pingConnection(PooledConnection conn) {
+    // the pool maintenance validates idle connections instead of the borrowing thread
+    return pingConnection(conn, poolMaintenanceInterval <= 0);
+  }
+
+  private boolean pingConnection(PooledConnection conn, boolean runPingQuery) {
     //记录此次ping操作是否成功完成
     boolean result = true;
     //
@@ -548,7 +1010,7 @@ public class PooledDataSource implements DataSource {
       result = false;
     }
     //如果没有关闭.
-    if (result) {
+    if (result && runPingQuery) {
       //允许ping
       if (poolPingEnabled) {
         //(超过poolPingConnectionsNotUsedFor指定的时长)未使用的连接，才需要ping
@@ -559,8 +1021,11 @@ public class PooledDataSource implements DataSource {
             }
             //执行poolPingQuery字段中记录的测试SQL语句
             Connection realConn = conn.getRealConnection();
+            long pingStart = System.nanoTime();
             try (Statement statement = realConn.createStatement()) {
               statement.executeQuery(poolPingQuery).close();
+            } finally {
+              metrics.getPingTime().record(System.nanoTime() - pingStart);
             }
             if (!realConn.getAutoCommit()) {
               realConn.rollback();
@@ -573,6 +1038,7 @@ public class PooledDataSource implements DataSource {
             log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
             try {
               conn.getRealConnection().close();
+              metrics.closedConnectionCount.increment();
             } catch (Exception e2) {
               //ignore
             }
@@ -605,6 +1071,7 @@ public class PooledDataSource implements DataSource {
 
   @Override
   protected void finalize() throws Throwable {
+    stopHousekeeper();
     forceCloseAll();
     super.finalize();
   }
@@ -0,0 +1,230 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The prepared statements of one physical connection, kept open when the executors close them so that the next
+ * {@code prepareStatement} with the same SQL, result set type and key generation options reuses them, whichever
+ * session asks.
+ * <p>
+ * A statement is lent to one user at a time and closing the returned proxy gives it back with its open result set
+ * closed and its parameters, batch, warnings and settings reset. The least recently returned statements are closed when there are more than {@code size}.
+ * Statements set to close on completion are closed for real.
+ *
+ * @since 3.5.4
+ */
+class StatementCache {
+
+  private static final Log log = LogFactory.getLog(StatementCache.class);
+
+  private static final Class<?>[] IFACES = new Class<?>[]{PreparedStatement.class};
+
+  private final PoolMetrics metrics;
+  private final Map<List<Object>, CachedStatement> statements;
+
+  StatementCache(PoolMetrics metrics, final int size) {
+    this.metrics = metrics;
+    this.statements = new LinkedHashMap<List<Object>, CachedStatement>(16, .75F, true) {
+      private static final long serialVersionUID = -1543520328571098376L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedStatement> eldest) {
+        if (size() > size) {
+          eldest.getValue().closeQuietly();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Lends the cached statement for the arguments of {@code prepareStatement}, or prepares a new one.
+   */
+  PreparedStatement prepareStatement(Connection realConnection, Method method, Object[] args) throws Throwable {
+    List<Object> key = keyOf(args);
+    CachedStatement statement;
+    synchronized (this) {
+      statement = statements.remove(key);
+    }
+    if (statement != null && !statement.statement.isClosed()) {
+      metrics.statementCacheHitCount.increment();
+    } else {
+      metrics.statementCacheMissCount.increment();
+      statement = new CachedStatement(key, (PreparedStatement) method.invoke(realConnection, args));
+    }
+    // 每次借出都用新的代理, 重复关闭旧代理不会影响下一个使用者
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES, new Lease(statement));
+  }
+
+  private void giveBack(CachedStatement statement) {
+    CachedStatement replaced;
+    synchronized (this) {
+      replaced = statements.put(statement.key, statement);
+    }
+    // 同一条 SQL 同时借出了多个, 只留最后归还的
+    if (replaced != null) {
+      replaced.closeQuietly();
+    }
+  }
+
+  private static List<Object> keyOf(Object[] args) {
+    List<Object> key = new ArrayList<>(args.length);
+    for (Object arg : args) {
+      if (arg instanceof int[]) {
+        key.add(Arrays.toString((int[]) arg));
+      } else if (arg instanceof String[]) {
+        key.add(Arrays.asList((String[]) arg));
+      } else {
+        key.add(arg);
+      }
+    }
+    return key;
+  }
+
+  private static class CachedStatement {
+
+    private final List<Object> key;
+    private final PreparedStatement statement;
+    private final int queryTimeout;
+    private final int fetchSize;
+    private final int maxRows;
+
+    CachedStatement(List<Object> key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.queryTimeout = statement.getQueryTimeout();
+      this.fetchSize = statement.getFetchSize();
+      this.maxRows = statement.getMaxRows();
+    }
+
+    void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        log.debug("Could not close cached statement.  Cause: " + e);
+      }
+    }
+  }
+
+  private class Lease implements InvocationHandler {
+
+    private final CachedStatement cached;
+    private boolean closed;
+    private boolean changed;
+    private boolean closeOnCompletion;
+    private final List<ResultSet> resultSets = new ArrayList<>();
+
+    Lease(CachedStatement cached) {
+      this.cached = cached;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if ("equals".equals(methodName) && method.getParameterCount() == 1) {
+        return proxy == args[0];
+      } else if ("close".equals(methodName)) {
+        close();
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return closed || cached.statement.isClosed();
+      } else if (closed && !Object.class.equals(method.getDeclaringClass())) {
+        throw new SQLException("Statement is closed.");
+      }
+      if ("closeOnCompletion".equals(methodName)) {
+        closeOnCompletion = true;
+      } else if ("setQueryTimeout".equals(methodName) || "setFetchSize".equals(methodName) || "setMaxRows".equals(methodName)) {
+        changed = true;
+      }
+      Object result;
+      try {
+        result = method.invoke(cached.statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+      if (result instanceof ResultSet) {
+        remember((ResultSet) result);
+      }
+      return result;
+    }
+
+    private void remember(ResultSet resultSet) {
+      // 重复执行时驱动已经关闭了之前的结果集, 不必一直留着
+      resultSets.removeIf(this::isClosed);
+      if (!resultSets.contains(resultSet)) {
+        resultSets.add(resultSet);
+      }
+    }
+
+    private boolean isClosed(ResultSet resultSet) {
+      try {
+        return resultSet.isClosed();
+      } catch (SQLException e) {
+        return true;
+      }
+    }
+
+    private void close() throws SQLException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      PreparedStatement statement = cached.statement;
+      if (closeOnCompletion || statement.isClosed()) {
+        statement.close();
+        return;
+      }
+      try {
+        // 结果集要随借用结束关闭, 否则要等语句被淘汰才释放
+        for (ResultSet resultSet : resultSets) {
+          resultSet.close();
+        }
+        resultSets.clear();
+        statement.clearParameters();
+        statement.clearBatch();
+        statement.clearWarnings();
+        if (changed) {
+          statement.setQueryTimeout(cached.queryTimeout);
+          statement.setFetchSize(cached.fetchSize);
+          statement.setMaxRows(cached.maxRows);
+        }
+      } catch (SQLException e) {
+        statement.close();
+        return;
+      }
+      giveBack(cached);
+    }
+  }
+
+}
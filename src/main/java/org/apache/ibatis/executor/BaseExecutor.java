@@ -139,6 +139,9 @@ public abstract class BaseExecutor implements Executor {
   public <E> List<E> query(MappedStatement ms, Object parameter,
                            RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
+    if (isLocalCacheBypassed(ms)) {
+      return queryWithoutLocalCache(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
   }
@@ -151,6 +154,9 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    if (isLocalCacheBypassed(ms)) {
+      return queryWithoutLocalCache(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     if (queryStack == 0 && ms.isFlushCacheRequired()) {
       clearLocalCache();
     }
@@ -183,6 +189,41 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  /**
+   * With {@link LocalCacheScope#STATEMENT} the local cache only lives while a top level statement runs, and is only
+   * read by the nested selects of that statement. A top level statement without direct nested selects can therefore
+   * skip its own cache key and local cache entry. Selects reached through nested result maps or discriminator cases
+   * still go through the local cache, so the bypass path ends the statement the same way {@link #query} does.
+   */
+  private boolean isLocalCacheBypassed(MappedStatement ms) {
+    return queryStack == 0 && !ms.hasNestedQueries()
+        && configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT;
+  }
+
+  private <E> List<E> queryWithoutLocalCache(MappedStatement ms, Object parameter, RowBounds rowBounds,
+                                             ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+    ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    if (ms.isFlushCacheRequired()) {
+      clearLocalCache();
+    }
+    List<E> list;
+    try {
+      queryStack++;
+      list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      for (DeferredLoad deferredLoad : deferredLoads) {
+        deferredLoad.load();
+      }
+    } finally {
+      queryStack--;
+      deferredLoads.clear();
+      clearLocalCache();
+    }
+    return list;
+  }
+
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
@@ -208,13 +249,14 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
-    cacheKey.update(ms.getId());
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    // statement id, offset, limit, sql, parameters and environment id, the statement id is already hashed
+    CacheKey cacheKey = ms.createCacheKey(parameterMappings.size() + 5);
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
     cacheKey.update(boundSql.getSql());
-    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
+    MetaObject metaObject = null;
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
       if (parameterMapping.getMode() != ParameterMode.OUT) {
@@ -227,7 +269,9 @@ public abstract class BaseExecutor implements Executor {
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
           value = metaObject.getValue(propertyName);
         }
         cacheKey.update(value);
@@ -33,7 +33,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 批处理是 JDBC 编程中的另一种优化手段。
@@ -56,8 +58,25 @@ public class BatchExecutor extends BaseExecutor {
 
   private MappedStatement currentStatement;
 
+  // 已经自动执行过的批次, 在下一次 flushStatements 时一起返回
+  private final List<BatchResult> flushedResults = new ArrayList<>();
+
+  // 按 SQL 分组时, 每条 SQL 对应的 Statement 在 statementList 中的位置
+  private final Map<String, Integer> statementIndexes = new HashMap<>();
+
+  private final Integer flushSize;
+
+  private final boolean groupBySql;
+
+  private final boolean retainParameters;
+
+  private int batchCount;
+
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.flushSize = configuration.getBatchFlushSize();
+    this.groupBySql = configuration.isBatchGroupBySql();
+    this.retainParameters = configuration.isRetainBatchParameters();
   }
 
   //我们知道 JDBC 的批处理操作只支持 insert、update、delete 等修改操作，
@@ -78,29 +97,61 @@ public class BatchExecutor extends BaseExecutor {
     //
     final Statement stmt;
     //
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
+    int index = indexOf(sql, ms);
+    if (index >= 0) {
+      stmt = statementList.get(index);
       applyTransactionTimeout(stmt);
       //
       handler.parameterize(stmt);//fix Issues 322
       //
-      BatchResult batchResult = batchResultList.get(last);
-      batchResult.addParameterObject(parameterObject);
+      if (retainsParameters(ms)) {
+        batchResultList.get(index).addParameterObject(parameterObject);
+      }
     } else {
       Connection connection = getConnection(ms.getStatementLog());
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt);    //fix Issues 322
-      currentSql = sql;
-      currentStatement = ms;
       statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      batchResultList.add(retainsParameters(ms) ? new BatchResult(ms, sql, parameterObject) : new BatchResult(ms, sql));
+      if (groupBySql) {
+        statementIndexes.put(sql, statementList.size() - 1);
+      }
     }
+    currentSql = sql;
+    currentStatement = ms;
     //
     handler.batch(stmt);
+    // 缓冲的语句达到上限时先执行一次, 避免大批量写入占满内存
+    if (flushSize != null && ++batchCount >= flushSize) {
+      int executed = flushedResults.size();
+      executeBatches(flushedResults);
+      releaseParameters(flushedResults.subList(executed, flushedResults.size()));
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  // 自动执行过的批次要保留到下一次 flushStatements, 不生成主键的语句不再需要参数对象, 否则 batchFlushSize 限制不住内存
+  private void releaseParameters(List<BatchResult> batchResults) {
+    for (BatchResult batchResult : batchResults) {
+      if (NoKeyGenerator.class.equals(batchResult.getMappedStatement().getKeyGenerator().getClass())) {
+        batchResult.getParameterObjects().clear();
+      }
+    }
+  }
+
+  private int indexOf(String sql, MappedStatement ms) {
+    if (groupBySql) {
+      Integer index = statementIndexes.get(sql);
+      return index != null && ms.equals(batchResultList.get(index).getMappedStatement()) ? index : -1;
+    }
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
+  // 只有生成主键时才需要参数对象
+  private boolean retainsParameters(MappedStatement ms) {
+    return retainParameters || !NoKeyGenerator.class.equals(ms.getKeyGenerator().getClass());
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds,
                              ResultHandler resultHandler, BoundSql boundSql)
@@ -136,10 +187,20 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
       if (isRollback) {
         return Collections.emptyList();
       }
+      List<BatchResult> results = new ArrayList<>(flushedResults);
+      executeBatches(results);
+      return results;
+    } finally {
+      flushedResults.clear();
+      closeStatements();
+    }
+  }
+
+  private void executeBatches(List<BatchResult> results) throws SQLException {
+    try {
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
         applyTransactionTimeout(stmt);
@@ -160,30 +221,36 @@ public class BatchExecutor extends BaseExecutor {
           // Close statement to close cursor #1109
           closeStatement(stmt);
         } catch (BatchUpdateException e) {
+          int prior = results.size();
           StringBuilder message = new StringBuilder();
           message.append(batchResult.getMappedStatement().getId())
             .append(" (batch index #")
-            .append(i + 1)
+            .append(prior + 1)
             .append(")")
             .append(" failed.");
-          if (i > 0) {
+          if (prior > 0) {
             message.append(" ")
-              .append(i)
+              .append(prior)
               .append(" prior sub executor(s) completed successfully, but will be rolled back.");
           }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
+          throw new BatchExecutorException(message.toString(), e, new ArrayList<>(results), batchResult);
         }
         results.add(batchResult);
       }
-      return results;
     } finally {
-      for (Statement stmt : statementList) {
-        closeStatement(stmt);
-      }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
+      closeStatements();
+    }
+  }
+
+  private void closeStatements() {
+    for (Statement stmt : statementList) {
+      closeStatement(stmt);
     }
+    currentSql = null;
+    statementList.clear();
+    batchResultList.clear();
+    statementIndexes.clear();
+    batchCount = 0;
   }
 
 }
@@ -101,6 +101,10 @@ public class CachingExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject,
                            RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    if (ms.getCache() == null) {
+      // 没有二级缓存, 由delegate自己决定是否需要CacheKey
+      return delegate.query(ms, parameterObject, rowBounds, resultHandler);
+    }
     //获取BoundSql对象
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     //创建相应的CacheKey
@@ -38,6 +38,17 @@ public class DefaultResultHandler implements ResultHandler<Object> {
     list = objectFactory.create(List.class);
   }
 
+  /**
+   * @param initialCapacity the number of results expected, applied if the object factory creates an {@link ArrayList}
+   * @since 3.5.4
+   */
+  public DefaultResultHandler(ObjectFactory objectFactory, int initialCapacity) {
+    this(objectFactory);
+    if (initialCapacity > 0 && list instanceof ArrayList) {
+      ((ArrayList<Object>) list).ensureCapacity(initialCapacity);
+    }
+  }
+
   @Override
   public void handleResult(ResultContext<?> context) {
     list.add(context.getResultObject());
@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Auto-mapping plans shared by all executions of a {@link org.apache.ibatis.session.Configuration}.
+ * <p>
+ * A plan lists the unmapped columns of a result set together with the property and type handler each is mapped to.
+ * It is keyed by the result map id, the column prefix and the column layout of the result set, so a statement that
+ * keeps returning the same columns resolves properties and type handlers only once instead of once per execution.
+ * The least recently used plans are dropped when there are more than {@code size} of them.
+ *
+ * @since 3.5.4
+ */
+public class AutoMappingPlanCache {
+
+  private Map<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>> plans;
+  private int size;
+
+  public AutoMappingPlanCache() {
+    setSize(1024);
+  }
+
+  public synchronized int getSize() {
+    return size;
+  }
+
+  /**
+   * @param size the maximum number of plans to keep, 0 disables the cache
+   */
+  public synchronized void setSize(final int size) {
+    this.size = size;
+    this.plans = new LinkedHashMap<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>>(16, .75F, true) {
+      private static final long serialVersionUID = 2178418226472617307L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>> eldest) {
+        return size() > size;
+      }
+    };
+  }
+
+  public synchronized int getPlanCount() {
+    return plans.size();
+  }
+
+  public synchronized void clear() {
+    plans.clear();
+  }
+
+  synchronized List<DefaultResultSetHandler.UnMappedColumnAutoMapping> get(String key) {
+    return plans.get(key);
+  }
+
+  synchronized void put(String key, List<DefaultResultSetHandler.UnMappedColumnAutoMapping> plan) {
+    if (size > 0) {
+      plans.put(key, plan);
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Maps the rows of one result set to beans of a flat result map.
+ * <p>
+ * Everything {@code getRowValue} decides per row, which columns are present, which type handler reads them and
+ * which setter takes the value, is resolved once, so a row is mapped by reading each column by index and calling
+ * the setter directly.
+ */
+final class CompiledRowMapper {
+
+  private static final Object[] NO_VALUE = {null};
+
+  private final Class<?> type;
+  private final ObjectFactory objectFactory;
+  private final Step[] steps;
+  private final boolean returnInstanceForEmptyRow;
+
+  CompiledRowMapper(Class<?> type, ObjectFactory objectFactory, List<Step> steps, boolean returnInstanceForEmptyRow) {
+    this.type = type;
+    this.objectFactory = objectFactory;
+    this.steps = steps.toArray(new Step[0]);
+    this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+  }
+
+  Object map(ResultSet rs) throws SQLException {
+    Object rowValue = objectFactory.create(type);
+    boolean foundValues = false;
+    for (Step step : steps) {
+      Object value = step.typeHandler.getResult(rs, step.columnIndex);
+      if (value != null) {
+        foundValues = true;
+        step.set(rowValue, value);
+      } else if (step.callSetterOnNull) {
+        step.set(rowValue, null);
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? rowValue : null;
+  }
+
+  /**
+   * Reads one column and passes it to one setter.
+   */
+  static final class Step {
+    private final int columnIndex;
+    private final TypeHandler<?> typeHandler;
+    private final String property;
+    private final Invoker setter;
+    private final boolean callSetterOnNull;
+
+    Step(int columnIndex, TypeHandler<?> typeHandler, String property, Invoker setter, boolean callSetterOnNull) {
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+      this.property = property;
+      this.setter = setter;
+      this.callSetterOnNull = callSetterOnNull;
+    }
+
+    private void set(Object rowValue, Object value) {
+      // same exception as BeanWrapper.setBeanProperty
+      try {
+        try {
+          setter.invoke(rowValue, value == null ? NO_VALUE : new Object[] {value});
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + rowValue.getClass()
+            + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
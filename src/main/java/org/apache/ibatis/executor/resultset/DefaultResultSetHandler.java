@@ -29,11 +29,15 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -73,6 +77,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  // the most objects nestedResultObjects held at once for the current result set
+  private int nestedResultObjectsPeak;
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
 
@@ -91,7 +97,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
+  static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
     private final TypeHandler<?> typeHandler;
@@ -287,7 +293,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private void cleanUpAfterHandlingResultSet() {
+    if (nestedResultObjectsPeak > 0) {
+      mappedStatement.getResultStatistics().recordNestedResultObjects(nestedResultObjectsPeak);
+      final Log statementLog = mappedStatement.getStatementLog();
+      if (statementLog != null && statementLog.isDebugEnabled()) {
+        // resultOrdered=true keeps only the objects of the current parent row
+        statementLog.debug("<==  Nested: " + nestedResultObjectsPeak + " objects held for joining"
+          + (mappedStatement.isResultOrdered() ? " (resultOrdered)" : ""));
+      }
+    }
     nestedResultObjects.clear();
+    nestedResultObjectsPeak = 0;
   }
 
   private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -307,8 +323,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         handleRowValues(rsw, resultMap, null, RowBounds.DEFAULT, parentMapping);
       } else {
         if (resultHandler == null) {
-          DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
+          ResultStatistics statistics = configuration.isAdaptiveFetchSize() ? mappedStatement.getResultStatistics() : null;
+          DefaultResultHandler defaultResultHandler = statistics == null ? new DefaultResultHandler(objectFactory)
+            : new DefaultResultHandler(objectFactory, statistics.getInitialCapacity());
           handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+          if (statistics != null) {
+            statistics.record(defaultResultHandler.getResultList().size(), rsw.getColumnNames().size());
+          }
           //添加.
           multipleResults.add(defaultResultHandler.getResultList());
         } else {
@@ -376,16 +397,26 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     //skipRows() 方法会检查 ResultSet 的属性，如果是 TYPE_FORWARD_ONLY 类型，则只能通过循环 + ResultSet.next()
     //方法（指针的逐行前移）定位到指定的数据行；反之，可以通过 ResultSet.absolute() 方法直接移动指针。
     skipRows(resultSet, rowBounds);
+    CompiledRowMapper rowMapper = rsw.getRowMapper(resultMap);
     //其中会检查当前已经映射的行是否达到了 RowBounds.limit 字段指定的行数上限，如果达到，则返回 false，停止后续操作。
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
       //RowBounds分页的弊端:，通过 RowBounds 实现的分页功能实际上还是会将全部数据加载到 ResultSet 中，
       //而不是只加载指定范围的数据，所以我们可以认为 RowBounds 实现的是一种“假分页”。这种“假分页”在数据量大的时候
       //性能就会很差，在处理大数据量分页时，建议通过 SQL 语句 where 条件 + limit 的方式实现分页。
-
-      //在完成 ResultSet 的预处理之后，接下来会通过 resolveDiscriminatedResultMap() 方法处理 标签，确定此次映射操作最终使用的 ResultMap 对象。
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      //创建映射结果对象
-      Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
+      Object rowValue;
+      if (rowMapper != null) {
+        rowValue = rowMapper.map(resultSet);
+      } else {
+        //在完成 ResultSet 的预处理之后，接下来会通过 resolveDiscriminatedResultMap() 方法处理 标签，确定此次映射操作最终使用的 ResultMap 对象。
+        ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+        //创建映射结果对象
+        rowValue = getRowValue(rsw, discriminatedResultMap, null);
+        if (!rsw.hasRowMapper(resultMap)) {
+          // 第一行映射完之后自动映射已经确定, 后面的行交给编译好的mapper
+          rowMapper = compileRowMapper(rsw, resultMap);
+          rsw.putRowMapper(resultMap, rowMapper);
+        }
+      }
       //方法把这个结果对象保存到合适的位置。
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
@@ -458,6 +489,65 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  //
+  // COMPILED ROW MAPPER FOR SIMPLE RESULT MAP
+  //
+  // 只处理没有构造器映射,鉴别器,嵌套查询的普通bean, 其他情况返回null, 继续走getRowValue
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) {
+    final Class<?> resultType = resultMap.getType();
+    if (resultMap.getDiscriminator() != null || !resultMap.getConstructorResultMappings().isEmpty()
+      || resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+      || resultType.isInterface() || Map.class.isAssignableFrom(resultType)
+      || Collection.class.isAssignableFrom(resultType) || ObjectWrapper.class.isAssignableFrom(resultType)
+      || !DefaultObjectWrapperFactory.class.equals(configuration.getObjectWrapperFactory().getClass())
+      || hasTypeHandlerForResultObject(rsw, resultType)
+      || !MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor()) {
+      return null;
+    }
+    final Reflector reflector = reflectorFactory.findForClass(resultType);
+    final List<CompiledRowMapper.Step> steps = new ArrayList<>();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      // resolved while mapping the first row
+      final List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(resultMap.getId() + ":" + null);
+      if (autoMapping == null) {
+        return null;
+      }
+      for (UnMappedColumnAutoMapping mapping : autoMapping) {
+        if (!addRowMapperStep(steps, rsw, reflector, mapping.column, mapping.typeHandler, mapping.property)) {
+          return null;
+        }
+      }
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return null;
+      }
+      if (propertyMapping.getColumn() == null || propertyMapping.getProperty() == null) {
+        continue;
+      }
+      if (!addRowMapperStep(steps, rsw, reflector, propertyMapping.getColumn(), propertyMapping.getTypeHandler(),
+        propertyMapping.getProperty())) {
+        return null;
+      }
+    }
+    return new CompiledRowMapper(resultType, objectFactory, steps, configuration.isReturnInstanceForEmptyRow());
+  }
+
+  private boolean addRowMapperStep(List<CompiledRowMapper.Step> steps, ResultSetWrapper rsw, Reflector reflector,
+                                   String column, TypeHandler<?> typeHandler, String property) {
+    final int columnIndex = rsw.getColumnIndex(column);
+    if (columnIndex < 0) {
+      // not in the result set, getRowValue skips it as well
+      return true;
+    }
+    if (property.indexOf('.') >= 0 || property.indexOf('[') >= 0 || !reflector.hasSetter(property)) {
+      return false;
+    }
+    final boolean callSetterOnNull = configuration.isCallSettersOnNulls() && !reflector.getSetterType(property).isPrimitive();
+    steps.add(new CompiledRowMapper.Step(columnIndex, typeHandler, property, reflector.getSetInvoker(property), callSetterOnNull));
+    return true;
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -488,7 +578,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
         || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
         || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         // issue #541 make property optional 属性名?
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -510,8 +600,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
     throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
@@ -520,15 +611,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(rsw, typeHandler, column);
     }
   }
 
+  // 按列序号读取, 省去驱动每次按列名查找; 结果集里没有这一列时仍按列名读取, 由驱动报错
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    final int columnIndex = rsw.getColumnIndex(column);
+    return columnIndex > 0
+      ? typeHandler.getResult(rsw.getResultSet(), columnIndex)
+      : typeHandler.getResult(rsw.getResultSet(), column);
+  }
+
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
+    if (autoMapping != null) {
+      return autoMapping;
+    }
+    // 其他执行已经为同样的列算过映射方案, 直接复用
+    final AutoMappingPlanCache planCache = configuration.getAutoMappingPlanCache();
+    final String planKey = mapKey + ":" + rsw.getColumnLayout();
+    autoMapping = planCache.get(planKey);
     if (autoMapping == null) {
       autoMapping = new ArrayList<>();
+      boolean unknownColumns = false;
       final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
       for (String columnName : unmappedColumnNames) {
         String propertyName = columnName;
@@ -551,16 +658,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
             autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
           } else {
+            unknownColumns = true;
             configuration.getAutoMappingUnknownColumnBehavior()
               .doAction(mappedStatement, columnName, property, propertyType);
           }
         } else {
+          unknownColumns = true;
           configuration.getAutoMappingUnknownColumnBehavior()
             .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
         }
       }
-      autoMappingsCache.put(mapKey, autoMapping);
+      // unknown columns must still be reported for every statement that maps them
+      if (!unknownColumns || configuration.getAutoMappingUnknownColumnBehavior() == AutoMappingUnknownColumnBehavior.NONE) {
+        planCache.put(planKey, autoMapping);
+      }
     }
+    autoMappingsCache.put(mapKey, autoMapping);
     return autoMapping;
   }
 
@@ -569,7 +682,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = getColumnValue(rsw, mapping.typeHandler, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -706,7 +819,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -739,7 +852,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       Class<?> parameterType = constructor.getParameterTypes()[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+      Object value = typeHandler.getResult(rsw.getResultSet(), i + 1);
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -785,7 +898,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
   }
 
   //
@@ -1001,6 +1114,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
       if (combinedKey != CacheKey.NULL_CACHE_KEY) {
         nestedResultObjects.put(combinedKey, rowValue);
+        if (nestedResultObjects.size() > nestedResultObjectsPeak) {
+          nestedResultObjectsPeak = nestedResultObjects.size();
+        }
       }
     }
     return rowValue;
@@ -1034,7 +1150,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             }
           }
           final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final CacheKey combinedKey = RowKeyPlan.combine(rowKey, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1096,36 +1212,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+    RowKeyPlan rowKeyPlan = rsw.getRowKeyPlan(resultMap, columnPrefix);
+    if (rowKeyPlan == null) {
+      rowKeyPlan = createRowKeyPlan(resultMap, rsw, columnPrefix);
+      rsw.putRowKeyPlan(resultMap, columnPrefix, rowKeyPlan);
+    }
+    return rowKeyPlan.createKey(rsw.getResultSet());
+  }
+
+  // 每个结果集只算一次哪些列组成行的 key, 之后每行按列序号读取
+  private RowKeyPlan createRowKeyPlan(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final List<RowKeyPlan.Column> columns = new ArrayList<>();
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        addRowKeyColumnsForMap(rsw, columns);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        addRowKeyColumnsForUnmappedProperties(resultMap, rsw, columns, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      addRowKeyColumnsForMappedProperties(resultMap, rsw, columns, resultMappings, columnPrefix);
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
-    }
-    return cacheKey;
-  }
-
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
-    }
-    return CacheKey.NULL_CACHE_KEY;
+    return new RowKeyPlan(resultMap.getId(), columns, configuration.isReturnInstanceForEmptyRow());
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1136,12 +1244,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void addRowKeyColumnsForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<RowKeyPlan.Column> columns, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        addRowKeyColumnsForMappedProperties(nestedResultMap, rsw, columns, nestedResultMap.getConstructorResultMappings(),
           prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
@@ -1149,17 +1257,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          columns.add(new RowKeyPlan.Column(column, rsw.getColumnIndex(column), th));
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void addRowKeyColumnsForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<RowKeyPlan.Column> columns, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1173,23 +1277,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        columns.add(new RowKeyPlan.Column(column, rsw.getColumnIndex(column), null));
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void addRowKeyColumnsForMap(ResultSetWrapper rsw, List<RowKeyPlan.Column> columns) {
     List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+    for (int i = 0; i < columnNames.size(); i++) {
+      columns.add(new RowKeyPlan.Column(columnNames.get(i), i + 1, null));
     }
   }
 
@@ -48,6 +48,10 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final Map<String, CompiledRowMapper> rowMappers = new HashMap<>();
+  private final Map<String, RowKeyPlan> rowKeyPlans = new HashMap<>();
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private String columnLayout;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -87,6 +91,46 @@ public class ResultSetWrapper {
     return null;
   }
 
+  /**
+   * Gets a fingerprint of the columns of the result set: their names, JDBC types and Java class names in order.
+   * Result sets with the same layout map to the same properties with the same type handlers.
+   *
+   * @return the column layout
+   */
+  public String getColumnLayout() {
+    if (columnLayout == null) {
+      final StringBuilder layout = new StringBuilder();
+      for (int i = 0; i < columnNames.size(); i++) {
+        layout.append(columnNames.get(i)).append('|').append(jdbcTypes.get(i)).append('|').append(classNames.get(i)).append(',');
+      }
+      columnLayout = layout.toString();
+    }
+    return columnLayout;
+  }
+
+  /**
+   * Gets the index of a column the way {@link ResultSet#findColumn(String)} does, ignoring case. The index is looked up
+   * once per name, so reading by index saves the driver's name lookup on every row.
+   *
+   * @param columnName the column name or label
+   * @return the 1-based index of the first column with that name, or -1 if there is none
+   */
+  public int getColumnIndex(String columnName) {
+    Integer columnIndex = columnIndexes.get(columnName);
+    if (columnIndex == null) {
+      columnIndex = -1;
+      final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+      for (int i = 0; i < columnNames.size(); i++) {
+        if (columnNames.get(i).toUpperCase(Locale.ENGLISH).equals(upperColumnName)) {
+          columnIndex = i + 1;
+          break;
+        }
+      }
+      columnIndexes.put(columnName, columnIndex);
+    }
+    return columnIndex;
+  }
+
   /**
    * Gets the type handler to use when reading the result set.
    * Tries to get from the TypeHandlerRegistry by searching for the property type.
@@ -176,6 +220,29 @@ public class ResultSetWrapper {
     return unMappedColumnNames;
   }
 
+  boolean hasRowMapper(ResultMap resultMap) {
+    return rowMappers.containsKey(resultMap.getId());
+  }
+
+  /**
+   * @return null if rows of the result map can not be mapped by a compiled mapper
+   */
+  CompiledRowMapper getRowMapper(ResultMap resultMap) {
+    return rowMappers.get(resultMap.getId());
+  }
+
+  void putRowMapper(ResultMap resultMap, CompiledRowMapper rowMapper) {
+    rowMappers.put(resultMap.getId(), rowMapper);
+  }
+
+  RowKeyPlan getRowKeyPlan(ResultMap resultMap, String columnPrefix) {
+    return rowKeyPlans.get(getMapKey(resultMap, columnPrefix));
+  }
+
+  void putRowKeyPlan(ResultMap resultMap, String columnPrefix, RowKeyPlan rowKeyPlan) {
+    rowKeyPlans.put(getMapKey(resultMap, columnPrefix), rowKeyPlan);
+  }
+
   private String getMapKey(ResultMap resultMap, String columnPrefix) {
     return resultMap.getId() + ":" + columnPrefix;
   }
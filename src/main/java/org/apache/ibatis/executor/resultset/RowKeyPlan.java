@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The columns that identify a row of a result map in one result set.
+ * <p>
+ * {@code createRowKey} used to work out for every row and every nested result map which columns make up the key,
+ * prefixing and upper-casing column names and searching the mapped column names. That is resolved once per result
+ * set, so a key is made by reading the id columns by index into a pre-sized {@link CacheKey}.
+ */
+final class RowKeyPlan {
+
+  private final String resultMapId;
+  private final Column[] columns;
+  private final boolean keepNullValues;
+
+  RowKeyPlan(String resultMapId, List<Column> columns, boolean keepNullValues) {
+    this.resultMapId = resultMapId;
+    this.columns = columns.toArray(new Column[0]);
+    this.keepNullValues = keepNullValues;
+  }
+
+  CacheKey createKey(ResultSet rs) throws SQLException {
+    if (columns.length == 0) {
+      return CacheKey.NULL_CACHE_KEY;
+    }
+    final CacheKey cacheKey = new CacheKey(1 + 2 * columns.length);
+    cacheKey.update(resultMapId);
+    for (Column column : columns) {
+      final Object value = column.read(rs);
+      // values read by a type handler are mapped properties, only those keep nulls for returnInstanceForEmptyRow
+      if (value != null || (keepNullValues && column.typeHandler != null)) {
+        cacheKey.update(column.name);
+        cacheKey.update(value);
+      }
+    }
+    return cacheKey.getUpdateCount() < 2 ? CacheKey.NULL_CACHE_KEY : cacheKey;
+  }
+
+  /**
+   * Combines the key of a nested row with the key of its parent row. The result holds the same updates as a clone of
+   * {@code rowKey} updated with {@code parentRowKey}, without copying the hashes again.
+   */
+  static CacheKey combine(CacheKey rowKey, CacheKey parentRowKey) {
+    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
+      CacheKey combinedKey = new CacheKey(rowKey, rowKey.getUpdateCount() + 1);
+      combinedKey.update(parentRowKey);
+      return combinedKey;
+    }
+    return CacheKey.NULL_CACHE_KEY;
+  }
+
+  /**
+   * One id column, read with a type handler or, without one, as a string.
+   */
+  static final class Column {
+    private final String name;
+    private final int index;
+    private final TypeHandler<?> typeHandler;
+
+    Column(String name, int index, TypeHandler<?> typeHandler) {
+      this.name = name;
+      this.index = index;
+      this.typeHandler = typeHandler;
+    }
+
+    private Object read(ResultSet rs) throws SQLException {
+      if (typeHandler == null) {
+        return index > 0 ? rs.getString(index) : rs.getString(name);
+      }
+      return index > 0 ? typeHandler.getResult(rs, index) : typeHandler.getResult(rs, name);
+    }
+  }
+
+}
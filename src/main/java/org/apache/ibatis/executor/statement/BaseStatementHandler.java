@@ -122,6 +122,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
+      return;
+    }
+    // 用户没有配置时, 按这条语句以往的结果数和列数选择
+    if (configuration.isAdaptiveFetchSize()) {
+      Integer adaptiveFetchSize = mappedStatement.getResultStatistics().getFetchSize();
+      if (adaptiveFetchSize != null) {
+        stmt.setFetchSize(adaptiveFetchSize);
+      }
     }
   }
 
@@ -29,8 +29,13 @@ import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.StatisticsCache;
+import org.apache.ibatis.cache.decorators.StorageStatisticsCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.WriteBehindCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -46,6 +51,8 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private boolean writeBehind;
+  private boolean statistics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -84,6 +91,22 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public CacheBuilder writeBehind(boolean writeBehind) {
+    this.writeBehind = writeBehind;
+    return this;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public CacheBuilder statistics(boolean statistics) {
+    this.statistics = statistics;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -95,11 +118,23 @@ public class CacheBuilder {
     setCacheProperties(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
+      StorageStatisticsCache storage = null;
+      if (isEnabled(statistics, "statistics")) {
+        // below the eviction decorators, so their removals are counted as evictions
+        storage = new StorageStatisticsCache(cache);
+        cache = storage;
+      }
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, storage, true, readWrite);
+    } else if (TinyLfuCache.class.equals(cache.getClass())) {
+      // evicts on its own and is thread-safe, so neither eviction decorators nor synchronization are needed
+      cache = setStandardDecorators(cache, null, false, readWrite);
+    } else if (OffHeapCache.class.equals(cache.getClass())) {
+      // also returns a deserialized copy on every read, so the SerializedCache is not needed either
+      cache = setStandardDecorators(cache, null, false, false);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
@@ -115,30 +150,49 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, StorageStatisticsCache storage, boolean synchronize, boolean serialize) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
         metaCache.setValue("size", size);
       }
+      if (storage == null && isEnabled(statistics, "statistics")) {
+        storage = new StorageStatisticsCache(cache);
+        cache = storage;
+      }
       if (clearInterval != null) {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
-      if (readWrite) {
+      if (serialize) {
         cache = new SerializedCache(cache);
+        // serializer and compressionThreshold are properties of the SerializedCache
+        setCacheProperties(cache);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
+      }
+      if (isEnabled(writeBehind, "writeBehind")) {
+        cache = new WriteBehindCache(cache);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
       }
+      if (storage != null) {
+        // outermost, so the latency includes waiting for locks and Configuration.getCache returns it
+        cache = new StatisticsCache(cache, storage);
+      }
       return cache;
     } catch (Exception e) {
       throw new CacheException("Error building standard cache decorators.  Cause: " + e, e);
     }
   }
 
+  private boolean isEnabled(boolean option, String property) {
+    return option || (properties != null && Boolean.parseBoolean(properties.getProperty(property)));
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
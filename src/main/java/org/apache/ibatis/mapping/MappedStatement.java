@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -54,10 +55,13 @@ public final class MappedStatement {
   private String[] keyProperties;
   private String[] keyColumns;
   private boolean hasNestedResultMaps;
+  private boolean hasNestedQueries;
   private String databaseId;
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private CacheKey cacheKeyPrefix;
+  private final ResultStatistics resultStatistics = new ResultStatistics();
 
   MappedStatement() {
     // constructor disabled
@@ -108,6 +112,7 @@ public final class MappedStatement {
       mappedStatement.resultMaps = resultMaps;
       for (ResultMap resultMap : resultMaps) {
         mappedStatement.hasNestedResultMaps = mappedStatement.hasNestedResultMaps || resultMap.hasNestedResultMaps();
+        mappedStatement.hasNestedQueries = mappedStatement.hasNestedQueries || resultMap.hasNestedQueries();
       }
       return this;
     }
@@ -197,6 +202,8 @@ public final class MappedStatement {
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
+      mappedStatement.cacheKeyPrefix = new CacheKey(1);
+      mappedStatement.cacheKeyPrefix.update(mappedStatement.id);
       return mappedStatement;
     }
   }
@@ -221,10 +228,29 @@ public final class MappedStatement {
     return id;
   }
 
+  /**
+   * Creates a cache key that already contains the id of this statement.
+   *
+   * @param expectedUpdates the total number of updates the key is expected to hold, including the statement id
+   * @return a new cache key
+   * @since 3.5.4
+   */
+  public CacheKey createCacheKey(int expectedUpdates) {
+    return new CacheKey(cacheKeyPrefix, expectedUpdates);
+  }
+
   public boolean hasNestedResultMaps() {
     return hasNestedResultMaps;
   }
 
+  /**
+   * @return true if one of the result maps of this statement runs nested selects
+   * @since 3.5.4
+   */
+  public boolean hasNestedQueries() {
+    return hasNestedQueries;
+  }
+
   public Integer getFetchSize() {
     return fetchSize;
   }
@@ -301,6 +327,13 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public ResultStatistics getResultStatistics() {
+    return resultStatistics;
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
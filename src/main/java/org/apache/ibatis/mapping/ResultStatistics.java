@@ -0,0 +1,130 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The number of results and columns the result sets of a {@link MappedStatement} returned recently, used to pick a
+ * fetch size and to presize the result list when {@code adaptiveFetchSize} is enabled.
+ * <p>
+ * All call sites of a statement share these counts, so the hints follow the fewest results of the last eight result
+ * sets and are capped low: one large scan must not make the small calls allocate large lists or fetch buffers. A call
+ * returning more results only grows its list and takes a few more round trips.
+ * <p>
+ * For result maps with nested result maps it also keeps how many partial objects were held at once to join rows,
+ * which is what such a statement keeps in memory besides its results.
+ * <p>
+ * The counts are updated without locking; an update lost to a concurrent one does not matter.
+ *
+ * @since 3.5.4
+ */
+public class ResultStatistics {
+
+  // 每次往返大约取回的单元格数(行数 x 列数), 列越多每次取的行越少
+  private static final int FETCH_CELLS = 1 << 14;
+  private static final int MIN_FETCH_SIZE = 16;
+  private static final int MAX_FETCH_SIZE = 1000;
+  private static final int MAX_INITIAL_CAPACITY = 1024;
+  private static final int RECENT_RESULT_SETS = 8;
+
+  private final AtomicIntegerArray recentResults = new AtomicIntegerArray(RECENT_RESULT_SETS);
+  private volatile int columnCount;
+  private volatile long samples;
+  private volatile int lastNestedResultObjects;
+  private volatile int maxNestedResultObjects;
+
+  /**
+   * @param results the number of results mapped from a result set
+   * @param columns the number of columns of the result set
+   */
+  public void record(int results, int columns) {
+    long n = samples;
+    recentResults.set((int) (n % RECENT_RESULT_SETS), results);
+    columnCount = columns;
+    samples = n + 1;
+  }
+
+  /**
+   * @param objects the most objects held at once to join the rows of a result set with nested result maps
+   */
+  public void recordNestedResultObjects(int objects) {
+    lastNestedResultObjects = objects;
+    if (objects > maxNestedResultObjects) {
+      maxNestedResultObjects = objects;
+    }
+  }
+
+  /**
+   * @return the most objects held at once to join the rows of the last result set with nested result maps
+   */
+  public int getLastNestedResultObjects() {
+    return lastNestedResultObjects;
+  }
+
+  /**
+   * @return the most objects ever held at once to join the rows of a result set with nested result maps
+   */
+  public int getMaxNestedResultObjects() {
+    return maxNestedResultObjects;
+  }
+
+  public long getSampleCount() {
+    return samples;
+  }
+
+  /**
+   * @return the fewest results of the last eight result sets, 0 before the first result set
+   */
+  public int getLowResultCount() {
+    int recorded = (int) Math.min(samples, RECENT_RESULT_SETS);
+    if (recorded == 0) {
+      return 0;
+    }
+    int low = Integer.MAX_VALUE;
+    for (int i = 0; i < recorded; i++) {
+      low = Math.min(low, recentResults.get(i));
+    }
+    return low;
+  }
+
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  /**
+   * @return a fetch size that returns the fewest recent results in one round trip while limiting the rows and cells
+   *         fetched at once, null before the first result set
+   */
+  public Integer getFetchSize() {
+    if (samples == 0) {
+      return null;
+    }
+    int byCells = FETCH_CELLS / Math.max(columnCount, 1);
+    int byResults = Math.max(getLowResultCount() + 1, MIN_FETCH_SIZE);
+    return Math.max(1, Math.min(Math.min(byResults, byCells), MAX_FETCH_SIZE));
+  }
+
+  /**
+   * @return the capacity to create the result list with, 0 before the first result set
+   */
+  public int getInitialCapacity() {
+    int low = getLowResultCount();
+    // 留 1/8 的余量, 结果数略有增长时也不用扩容
+    return Math.min(low + (low >> 3), MAX_INITIAL_CAPACITY);
+  }
+
+}
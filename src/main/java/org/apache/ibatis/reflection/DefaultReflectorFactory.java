@@ -23,7 +23,18 @@ public class DefaultReflectorFactory implements ReflectorFactory {
   //维护一个 ConcurrentHashMap<Class<?>, Reflector> 集合（reflectorMap 字段）缓存其创建的所有 Reflector 对象。
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
 
+  private final boolean generateInvokers;
+
   public DefaultReflectorFactory() {
+    this(false);
+  }
+
+  /**
+   * @param generateInvokers whether the reflectors call public getters and setters through generated code
+   * @since 3.5.4
+   */
+  public DefaultReflectorFactory(boolean generateInvokers) {
+    this.generateInvokers = generateInvokers;
   }
 
   @Override
@@ -42,11 +53,15 @@ public class DefaultReflectorFactory implements ReflectorFactory {
   public Reflector findForClass(Class<?> type) {
     if (classCacheEnabled) {
       // synchronized (type) removed see issue #461
-      return reflectorMap.computeIfAbsent(type, Reflector::new);
+      return reflectorMap.computeIfAbsent(type, this::newReflector);
     } else {
       //
-      return new Reflector(type);
+      return newReflector(type);
     }
   }
 
+  private Reflector newReflector(Class<?> type) {
+    return new Reflector(type, generateInvokers);
+  }
+
 }
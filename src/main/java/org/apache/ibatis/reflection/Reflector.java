@@ -56,6 +56,8 @@ public class Reflector {
 
   //6.所有属性名称的集合，记录到这个集合中的属性名称都是大写的。对.应的真实的格式的属性
   private final Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
+  //生成的getter/setter调用代码可以被JIT内联, 比Method.invoke快
+  private final boolean generateInvokers;
 
   //在我们构造一个 Reflector 对象的时候，传入一个 Class 对象，通过解析这个 Class 对象，
   //即可填充上述核心字段，整个核心流程大致可描述为如下。
@@ -67,7 +69,17 @@ public class Reflector {
   //6.根据前面三步构造的 getMethods/setMethods 集合的 keySet，初始化 readablePropertyNames、writablePropertyNames 集合。
   //7.遍历构造的 readablePropertyNames、writablePropertyNames 集合，将其中的属性名称全部转化成大写并记录到 caseInsensitivePropertyMap 集合中。
   public Reflector(Class<?> clazz) {
+    this(clazz, false);
+  }
+
+  /**
+   * @param clazz the class to reflect
+   * @param generateInvokers whether to call public getters and setters through generated code instead of reflection
+   * @since 3.5.4
+   */
+  public Reflector(Class<?> clazz, boolean generateInvokers) {
     type = clazz;
+    this.generateInvokers = generateInvokers;
     addDefaultConstructor(clazz);
     addGetMethods(clazz);
     addSetMethods(clazz);
@@ -147,11 +159,11 @@ public class Reflector {
   //会为每个 getter 方法创建对应的 MethodInvoker 对象，
   //然后统一保存到 getMethods 集合中。同时，还会在 getTypes 集合中维护属性名称与对应 getter 方法返回值类型的映射。
   private void addGetMethod(String name, Method method, boolean isAmbiguous) {
-    MethodInvoker invoker = isAmbiguous
+    Invoker invoker = isAmbiguous
       ? new AmbiguousMethodInvoker(method, MessageFormat.format(
       "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
       name, method.getDeclaringClass().getName()))
-      : new MethodInvoker(method);
+      : generateInvokers ? LambdaMethodInvoker.forGetter(method) : new MethodInvoker(method);
     getMethods.put(name, invoker);
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
     getTypes.put(name, typeToClass(returnType));
@@ -223,7 +235,7 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    Invoker invoker = generateInvokers ? LambdaMethodInvoker.forSetter(method) : new MethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Calls a getter or setter through a class generated by {@link LambdaMetafactory}, which the JIT can inline like
+ * a direct call, instead of through {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Only public methods of public classes that are visible from the MyBatis class loader can be called this way, the
+ * factory methods return a {@link MethodInvoker} for the others.
+ *
+ * @since 3.5.4
+ */
+public class LambdaMethodInvoker implements Invoker {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private final Class<?> type;
+  private final Class<?> argumentType;
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+  private final MethodInvoker fallback;
+
+  private LambdaMethodInvoker(Method method, Class<?> type, Function<Object, Object> getter,
+      BiConsumer<Object, Object> setter) {
+    this.type = type;
+    this.argumentType = MethodType.methodType(type).wrap().returnType();
+    this.getter = getter;
+    this.setter = setter;
+    this.fallback = new MethodInvoker(method);
+  }
+
+  /**
+   * Creates an invoker for a method without parameters.
+   *
+   * @param method the getter
+   * @return a generated invoker, or a {@link MethodInvoker} if the method can not be called from generated code
+   */
+  @SuppressWarnings("unchecked")
+  public static Invoker forGetter(Method method) {
+    if (method.getParameterCount() == 0 && isAccessible(method, method.getReturnType())) {
+      try {
+        MethodHandle handle = LOOKUP.unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+        return new LambdaMethodInvoker(method, method.getReturnType(), (Function<Object, Object>) site.getTarget().invokeWithArguments(), null);
+      } catch (Throwable t) {
+        // falls back to reflection
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
+  /**
+   * Creates an invoker for a method with one parameter.
+   *
+   * @param method the setter
+   * @return a generated invoker, or a {@link MethodInvoker} if the method can not be called from generated code
+   */
+  @SuppressWarnings("unchecked")
+  public static Invoker forSetter(Method method) {
+    if (method.getParameterCount() == 1 && isAccessible(method, method.getParameterTypes()[0])) {
+      try {
+        MethodHandle handle = LOOKUP.unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class), handle,
+            handle.type().wrap().changeReturnType(void.class));
+        return new LambdaMethodInvoker(method, method.getParameterTypes()[0], null,
+            (BiConsumer<Object, Object>) site.getTarget().invokeWithArguments());
+      } catch (Throwable t) {
+        // falls back to reflection
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    if (setter == null) {
+      try {
+        return getter.apply(target);
+      } catch (Throwable t) {
+        // same as Method.invoke
+        throw new InvocationTargetException(t);
+      }
+    }
+    Object value = args[0];
+    if (value == null ? type.isPrimitive() : !argumentType.isInstance(value)) {
+      // let reflection widen the value or throw the usual IllegalArgumentException
+      return fallback.invoke(target, args);
+    }
+    try {
+      setter.accept(target, value);
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+    return null;
+  }
+
+  @Override
+  public Class<?> getType() {
+    return type;
+  }
+
+  private static boolean isAccessible(Method method, Class<?> valueType) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    // the generated class links against these types through the class loader of MyBatis
+    return Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+        && Modifier.isPublic(declaringClass.getModifiers()) && isVisible(declaringClass) && isVisible(valueType);
+  }
+
+  private static boolean isVisible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    try {
+      return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,577 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Evaluates the common subset of OGNL used in dynamic SQL without OGNL.
+ * <p>
+ * Property paths ({@code user.name}), the literals {@code null}, {@code true}, {@code false}, integers, decimals and
+ * strings, the methods {@code size()}, {@code isEmpty()} and {@code length()}, comparisons ({@code ==}, {@code !=},
+ * {@code <}, {@code >}, {@code <=}, {@code >=} and their word forms), {@code and}, {@code or}, {@code not} and
+ * parentheses are parsed once into a tree of small functions that read properties through the {@link Reflector}.
+ * <p>
+ * Anything else is left to the fallback engine, OGNL by default: expressions using other syntax when they are
+ * parsed, and evaluations whose result would depend on OGNL's conversions, such as comparing a string with a
+ * character, or that OGNL handles its own way, such as reading a property of null, when they are evaluated. Results
+ * are therefore the same as with OGNL. A getter that throws is not called again by the fallback; its exception is
+ * reported as OGNL would report it.
+ * <p>
+ * Created with a {@link Configuration}, the engine reads properties through the configured {@link ReflectorFactory}.
+ *
+ * @since 3.5.4
+ */
+public class CompiledExpressionEngine implements ExpressionEngine {
+
+  private static final Expression UNSUPPORTED = root -> {
+    throw Undecided.INSTANCE;
+  };
+
+  private final ExpressionEngine fallback;
+  private final Configuration configuration;
+  private final ReflectorFactory reflectorFactory;
+  private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
+
+  public CompiledExpressionEngine() {
+    this(new OgnlExpressionEngine());
+  }
+
+  public CompiledExpressionEngine(ExpressionEngine fallback) {
+    this.fallback = fallback;
+    this.configuration = null;
+    this.reflectorFactory = new DefaultReflectorFactory();
+  }
+
+  /**
+   * Creates an engine that reads properties through the reflector factory of the configuration, also when it is
+   * replaced later, and falls back to OGNL.
+   *
+   * @param configuration the configuration the engine is used by
+   */
+  public CompiledExpressionEngine(Configuration configuration) {
+    this.fallback = new OgnlExpressionEngine();
+    this.configuration = configuration;
+    this.reflectorFactory = null;
+  }
+
+  @Override
+  public Object getValue(String expression, Object root) {
+    Expression compiled = expressionCache.computeIfAbsent(expression, this::compile);
+    if (compiled != UNSUPPORTED) {
+      try {
+        return compiled.getValue(root);
+      } catch (Undecided e) {
+        // let the fallback decide
+      } catch (RuntimeException e) {
+        throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
+      }
+    }
+    return fallback.getValue(expression, root);
+  }
+
+  private ReflectorFactory getReflectorFactory() {
+    return configuration == null ? reflectorFactory : configuration.getReflectorFactory();
+  }
+
+  private Expression compile(String expression) {
+    List<Object> tokens = tokenize(expression);
+    if (tokens == null) {
+      return UNSUPPORTED;
+    }
+    Expression compiled = new Parser(tokens).parse();
+    return compiled == null ? UNSUPPORTED : compiled;
+  }
+
+  @FunctionalInterface
+  private interface Expression {
+    Object getValue(Object root);
+  }
+
+  //
+  // TOKENS
+  //
+
+  /**
+   * An operator, a parenthesis, a dot or an identifier. Literals are tokens of their own value.
+   */
+  private static final class Symbol {
+    private final String text;
+
+    Symbol(String text) {
+      this.text = text;
+    }
+  }
+
+  private static final class Literal {
+    private final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+  }
+
+  private static final String[] OPERATORS = {"==", "!=", "<=", ">=", "&&", "||", "<", ">", "!", "(", ")", "."};
+
+  /**
+   * @return null if the expression contains anything not supported
+   */
+  private static List<Object> tokenize(String expression) {
+    List<Object> tokens = new ArrayList<>();
+    int i = 0;
+    final int length = expression.length();
+    outer:
+    while (i < length) {
+      char c = expression.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (Character.isJavaIdentifierStart(c) && c != '$') {
+        int start = i;
+        while (i < length && Character.isJavaIdentifierPart(expression.charAt(i)) && expression.charAt(i) != '$') {
+          i++;
+        }
+        tokens.add(new Symbol(expression.substring(start, i)));
+      } else if (c >= '0' && c <= '9') {
+        int start = i;
+        while (i < length && Character.isDigit(expression.charAt(i))) {
+          i++;
+        }
+        boolean decimal = i + 1 < length && expression.charAt(i) == '.' && Character.isDigit(expression.charAt(i + 1));
+        if (decimal) {
+          i++;
+          while (i < length && Character.isDigit(expression.charAt(i))) {
+            i++;
+          }
+        }
+        if (i < length && (Character.isLetter(expression.charAt(i)) || expression.charAt(i) == '.')) {
+          // type suffixes, exponents and the like
+          return null;
+        }
+        String number = expression.substring(start, i);
+        if (decimal) {
+          tokens.add(new Literal(Double.valueOf(number)));
+        } else if (number.length() > 1 && number.charAt(0) == '0') {
+          // octal
+          return null;
+        } else {
+          long value = Long.parseLong(number);
+          if (value > Integer.MAX_VALUE) {
+            return null;
+          }
+          tokens.add(new Literal((int) value));
+        }
+      } else if (c == '\'' || c == '"') {
+        int end = expression.indexOf(c, i + 1);
+        if (end < 0) {
+          return null;
+        }
+        String text = expression.substring(i + 1, end);
+        if (text.indexOf('\\') >= 0) {
+          return null;
+        }
+        if (c == '\'') {
+          if (text.isEmpty()) {
+            return null;
+          }
+          // OGNL reads a single character in single quotes as a char
+          tokens.add(new Literal(text.length() == 1 ? (Object) text.charAt(0) : text));
+        } else {
+          tokens.add(new Literal(text));
+        }
+        i = end + 1;
+      } else {
+        for (String operator : OPERATORS) {
+          if (expression.startsWith(operator, i)) {
+            tokens.add(new Symbol(operator));
+            i += operator.length();
+            continue outer;
+          }
+        }
+        return null;
+      }
+    }
+    return tokens;
+  }
+
+  //
+  // PARSER
+  //
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+      "and", "or", "not", "eq", "neq", "lt", "gt", "lte", "gte", "in", "instanceof", "new",
+      "shl", "shr", "ushr", "band", "bor", "xor", "null", "true", "false"));
+
+  /**
+   * A recursive descent parser with the precedence of OGNL. Every method returns null for what it does not support.
+   */
+  private final class Parser {
+    private final List<Object> tokens;
+    private int position;
+
+    Parser(List<Object> tokens) {
+      this.tokens = tokens;
+    }
+
+    Expression parse() {
+      Expression expression = or();
+      return position == tokens.size() ? expression : null;
+    }
+
+    private Expression or() {
+      Expression left = and();
+      while (left != null && (accept("||") || accept("or"))) {
+        final Expression first = left;
+        final Expression second = and();
+        if (second == null) {
+          return null;
+        }
+        // like OGNL, the first true value or the last value
+        left = root -> {
+          Object value = first.getValue(root);
+          return isTrue(value) ? value : second.getValue(root);
+        };
+      }
+      return left;
+    }
+
+    private Expression and() {
+      Expression left = equality();
+      while (left != null && (accept("&&") || accept("and"))) {
+        final Expression first = left;
+        final Expression second = equality();
+        if (second == null) {
+          return null;
+        }
+        // like OGNL, the first false value or the last value
+        left = root -> {
+          Object value = first.getValue(root);
+          return isTrue(value) ? second.getValue(root) : value;
+        };
+      }
+      return left;
+    }
+
+    private Expression equality() {
+      Expression left = relational();
+      while (left != null) {
+        final boolean equal;
+        if (accept("==") || accept("eq")) {
+          equal = true;
+        } else if (accept("!=") || accept("neq")) {
+          equal = false;
+        } else {
+          break;
+        }
+        final Expression first = left;
+        final Expression second = relational();
+        if (second == null) {
+          return null;
+        }
+        left = root -> isEqual(first.getValue(root), second.getValue(root)) == equal;
+      }
+      return left;
+    }
+
+    private Expression relational() {
+      Expression left = unary();
+      while (left != null) {
+        final int expected;
+        final boolean orEqual;
+        if (accept("<") || accept("lt")) {
+          expected = -1;
+          orEqual = false;
+        } else if (accept(">") || accept("gt")) {
+          expected = 1;
+          orEqual = false;
+        } else if (accept("<=") || accept("lte")) {
+          expected = -1;
+          orEqual = true;
+        } else if (accept(">=") || accept("gte")) {
+          expected = 1;
+          orEqual = true;
+        } else {
+          break;
+        }
+        final Expression first = left;
+        final Expression second = unary();
+        if (second == null) {
+          return null;
+        }
+        left = root -> {
+          int result = Integer.signum(compare(first.getValue(root), second.getValue(root)));
+          return result == expected || (orEqual && result == 0);
+        };
+      }
+      return left;
+    }
+
+    private Expression unary() {
+      if (accept("!") || accept("not")) {
+        final Expression operand = unary();
+        return operand == null ? null : root -> !isTrue(operand.getValue(root));
+      }
+      return primary();
+    }
+
+    private Expression primary() {
+      if (position >= tokens.size()) {
+        return null;
+      }
+      Object token = tokens.get(position++);
+      if (token instanceof Literal) {
+        final Object value = ((Literal) token).value;
+        return root -> value;
+      }
+      String text = ((Symbol) token).text;
+      if ("(".equals(text)) {
+        Expression expression = or();
+        // a chain after the parenthesis is left to OGNL
+        return expression != null && accept(")") && !peek(".") ? expression : null;
+      }
+      if ("null".equals(text)) {
+        return root -> null;
+      }
+      if ("true".equals(text) || "false".equals(text)) {
+        final Boolean value = Boolean.valueOf(text);
+        return root -> value;
+      }
+      if (!isIdentifier(text) || peek("(")) {
+        return null;
+      }
+      final String name = text;
+      Expression expression = root -> getRootProperty(root, name);
+      while (accept(".")) {
+        if (position >= tokens.size() || !(tokens.get(position) instanceof Symbol)
+            || !isIdentifier(((Symbol) tokens.get(position)).text)) {
+          return null;
+        }
+        final String member = ((Symbol) tokens.get(position++)).text;
+        final Expression target = expression;
+        if (accept("(")) {
+          if (!accept(")")) {
+            return null;
+          }
+          expression = root -> invoke(target.getValue(root), member);
+        } else {
+          expression = root -> getProperty(target.getValue(root), member);
+        }
+      }
+      return expression;
+    }
+
+    private boolean isIdentifier(String text) {
+      return Character.isJavaIdentifierStart(text.charAt(0)) && !KEYWORDS.contains(text);
+    }
+
+    private boolean peek(String text) {
+      return position < tokens.size() && tokens.get(position) instanceof Symbol
+          && ((Symbol) tokens.get(position)).text.equals(text);
+    }
+
+    private boolean accept(String text) {
+      if (peek(text)) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  //
+  // EVALUATION
+  //
+
+  private Object getRootProperty(Object root, String name) {
+    if (root instanceof DynamicContext.ContextMap) {
+      // same as DynamicContext.ContextAccessor
+      Map<?, ?> map = (Map<?, ?>) root;
+      Object result = map.get(name);
+      if (result != null || map.containsKey(name)) {
+        return result;
+      }
+      Object parameterObject = map.get(DynamicContext.PARAMETER_OBJECT_KEY);
+      if (parameterObject instanceof Map) {
+        return ((Map<?, ?>) parameterObject).get(name);
+      }
+      return null;
+    }
+    return getProperty(root, name);
+  }
+
+  private Object getProperty(Object target, String name) {
+    if (target == null || target instanceof Collection || target.getClass().isArray()) {
+      throw Undecided.INSTANCE;
+    }
+    if (target instanceof Map) {
+      switch (name) {
+        case "size":
+        case "isEmpty":
+        case "keys":
+        case "keySet":
+        case "values":
+          // OGNL treats these names specially
+          throw Undecided.INSTANCE;
+        default:
+          return ((Map<?, ?>) target).get(name);
+      }
+    }
+    Reflector reflector = getReflectorFactory().findForClass(target.getClass());
+    if (!reflector.hasGetter(name)) {
+      throw Undecided.INSTANCE;
+    }
+    try {
+      return reflector.getGetInvoker(name).invoke(target, null);
+    } catch (Throwable t) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(t);
+      throw new ReflectionException("Could not get property '" + name + "' from " + target.getClass() + ".  Cause: " + cause, cause);
+    }
+  }
+
+  private static Object invoke(Object target, String method) {
+    switch (method) {
+      case "size":
+        if (target instanceof Collection) {
+          return ((Collection<?>) target).size();
+        } else if (target instanceof Map) {
+          return ((Map<?, ?>) target).size();
+        }
+        break;
+      case "isEmpty":
+        if (target instanceof Collection) {
+          return ((Collection<?>) target).isEmpty();
+        } else if (target instanceof Map) {
+          return ((Map<?, ?>) target).isEmpty();
+        } else if (target instanceof String) {
+          return ((String) target).isEmpty();
+        }
+        break;
+      case "length":
+        if (target instanceof CharSequence) {
+          return ((CharSequence) target).length();
+        }
+        break;
+      default:
+        break;
+    }
+    throw Undecided.INSTANCE;
+  }
+
+  private static boolean isTrue(Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    if (isIntegral(value) || isFloating(value)) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    throw Undecided.INSTANCE;
+  }
+
+  private static boolean isEqual(Object left, Object right) {
+    if (left == right) {
+      return true;
+    }
+    if (left == null || right == null) {
+      return false;
+    }
+    if (left instanceof String && right instanceof String || left instanceof Boolean && right instanceof Boolean) {
+      return left.equals(right);
+    }
+    return compareNumbers(left, right) == 0;
+  }
+
+  private static int compare(Object left, Object right) {
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+    if (left == null || right == null) {
+      throw Undecided.INSTANCE;
+    }
+    return compareNumbers(left, right);
+  }
+
+  private static int compareNumbers(Object left, Object right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+    }
+    if ((isIntegral(left) || isFloating(left)) && (isIntegral(right) || isFloating(right))) {
+      double l = ((Number) left).doubleValue();
+      double r = ((Number) right).doubleValue();
+      if (Double.isNaN(l) || Double.isNaN(r)) {
+        throw Undecided.INSTANCE;
+      }
+      return l < r ? -1 : (l == r ? 0 : 1);
+    }
+    if ((isIntegral(left) || isBig(left)) && (isIntegral(right) || isBig(right))) {
+      return toBigDecimal(left).compareTo(toBigDecimal(right));
+    }
+    throw Undecided.INSTANCE;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private static boolean isFloating(Object value) {
+    return value instanceof Double || value instanceof Float;
+  }
+
+  private static boolean isBig(Object value) {
+    return value instanceof BigDecimal || value instanceof BigInteger;
+  }
+
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    }
+    return BigDecimal.valueOf(((Number) value).longValue());
+  }
+
+  /**
+   * Thrown when OGNL has to evaluate the expression.
+   */
+  private static final class Undecided extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private static final Undecided INSTANCE = new Undecided();
+
+    private Undecided() {
+      super(null, null, false, false);
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Static text whose {@code #{}} placeholders are replaced by {@code ?} when the statement is loaded, so a compiled
+ * {@link DynamicContext} takes the text as is instead of parsing it again on every call.
+ *
+ * @since 3.5.4
+ */
+public class CompiledTextSqlNode implements SqlNode {
+  private final String text;
+  private final String sql;
+  private final List<String> parameters;
+
+  public CompiledTextSqlNode(String text) {
+    List<String> parameters = new ArrayList<>();
+    this.text = text;
+    this.sql = DynamicContext.parameterize(text, parameters);
+    this.parameters = Collections.unmodifiableList(parameters);
+  }
+
+  @Override
+  public boolean apply(DynamicContext context) {
+    if (context.isCompiled()) {
+      context.appendParameterizedSql(sql, parameters);
+    } else {
+      context.appendSql(text);
+    }
+    return true;
+  }
+
+}
@@ -15,14 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
 
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
 import ognl.PropertyAccessor;
 
+import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
@@ -38,11 +40,30 @@ public class DynamicContext {
     OgnlRuntime.setPropertyAccessor(ContextMap.class, new ContextAccessor());
   }
 
+  // the SQL builder of the last context released on this thread, reused by the next one
+  private static final ThreadLocal<StringBuilder> POOLED_SQL_BUILDER = new ThreadLocal<>();
+  // larger builders are left to the garbage collector instead of being held by the thread
+  private static final int MAX_POOLED_CAPACITY = 1 << 19;
+
   private final ContextMap bindings;
-  private final StringJoiner sqlBuilder = new StringJoiner(" ");
+  private StringBuilder sqlBuilder;
+  private boolean sqlAppended;
+  // contents of the #{} placeholders already replaced by ?, null unless compiled
+  private final List<String> parameters;
   private int uniqueNumber = 0;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
+    this(configuration, parameterObject, false);
+  }
+
+  /**
+   * @param compiled whether the SQL is built with {@code ?} in place of {@code #{}} placeholders, whose contents are
+   *          collected in {@link #getParameters()} instead of being parsed out of the SQL afterwards
+   * @since 3.5.4
+   */
+  public DynamicContext(Configuration configuration, Object parameterObject, boolean compiled) {
+    this.parameters = compiled ? new ArrayList<>() : null;
+    this.sqlBuilder = borrowSqlBuilder();
     if (parameterObject != null && !(parameterObject instanceof Map)) {
       MetaObject metaObject = configuration.newMetaObject(parameterObject);
       boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
@@ -54,6 +75,15 @@ public class DynamicContext {
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
 
+  /**
+   * For contexts that wrap another one and override its methods to pass the SQL on: shares the bindings of the
+   * delegate and holds no SQL of its own.
+   */
+  DynamicContext(DynamicContext delegate) {
+    this.bindings = delegate.bindings;
+    this.parameters = null;
+  }
+
   public Map<String, Object> getBindings() {
     return bindings;
   }
@@ -63,11 +93,94 @@ public class DynamicContext {
   }
 
   public void appendSql(String sql) {
-    sqlBuilder.add(sql);
+    addSql(parameters == null ? sql : parameterize(sql, parameters));
+  }
+
+  /**
+   * Appends SQL whose {@code #{}} placeholders were replaced by {@code ?} in advance. Only valid while
+   * {@link #isCompiled()}.
+   *
+   * @param sql the SQL with a {@code ?} for each placeholder
+   * @param parameters the contents of the replaced placeholders, in order
+   * @since 3.5.4
+   */
+  public void appendParameterizedSql(String sql, List<String> parameters) {
+    addSql(sql);
+    this.parameters.addAll(parameters);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isCompiled() {
+    return parameters != null;
+  }
+
+  /**
+   * @return the contents of the {@code #{}} placeholders in the SQL, in order, or null unless compiled
+   * @since 3.5.4
+   */
+  public List<String> getParameters() {
+    return parameters;
   }
 
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    int start = 0;
+    int end = sqlBuilder.length();
+    while (start < end && sqlBuilder.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sqlBuilder.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sqlBuilder.substring(start, end);
+  }
+
+  /**
+   * Hands the buffer the SQL was built in over to the next context created on this thread. The context must not be
+   * used afterwards.
+   *
+   * @since 3.5.4
+   */
+  public void release() {
+    if (sqlBuilder != null && sqlBuilder.capacity() <= MAX_POOLED_CAPACITY) {
+      POOLED_SQL_BUILDER.set(sqlBuilder);
+    }
+    sqlBuilder = null;
+  }
+
+  private static StringBuilder borrowSqlBuilder() {
+    StringBuilder pooled = POOLED_SQL_BUILDER.get();
+    if (pooled == null) {
+      return new StringBuilder();
+    }
+    POOLED_SQL_BUILDER.set(null);
+    pooled.setLength(0);
+    return pooled;
+  }
+
+  // fragments are separated by a space
+  private void addSql(String sql) {
+    if (sqlAppended) {
+      sqlBuilder.append(' ');
+    }
+    sqlBuilder.append(sql);
+    sqlAppended = true;
+  }
+
+  /**
+   * Replaces the {@code #{}} placeholders of the SQL by {@code ?}, the way {@link org.apache.ibatis.builder.SqlSourceBuilder}
+   * does, and adds their contents to {@code parameters}.
+   */
+  static String parameterize(String sql, List<String> parameters) {
+    if (sql == null || !sql.contains("#{")) {
+      return sql;
+    }
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+      parameters.add(content);
+      return "?";
+    });
+    return parser.parse(sql);
   }
 
   public int getUniqueNumber() {
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
@@ -33,31 +36,49 @@ public class DynamicSqlSource implements SqlSource {
    */
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final boolean compiled;
+  private final SqlShapeCache shapeCache;
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     //
     this.configuration = configuration;
     //
     this.rootSqlNode = rootSqlNode;
+    // 编译模式下 #{} 在加载时就被替换成 ?, 不再每次解析 SQL
+    this.compiled = configuration.isCompileDynamicSql();
+    // 生成的 SQL 形状相同时复用解析结果
+    int shapeCacheSize = configuration.getDynamicSqlShapeCacheSize();
+    this.shapeCache = shapeCacheSize > 0 ? new SqlShapeCache(configuration, shapeCacheSize) : null;
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
     //创建DynamicContext对象，parameterObject是用户传入的实参
-    DynamicContext context = new DynamicContext(configuration, parameterObject);
+    DynamicContext context = new DynamicContext(configuration, parameterObject, compiled);
     //调用rootSqlNode.apply()方法，完成整个树形结构中全部SqlNode对象对SQL片段的解析
     //这里无须关心rootSqlNode这棵树中到底有多少SqlNode对象，每个SqlNode对象的行为都是一致的，
     //都会将解析之后的SQL语句片段追加到DynamicContext中，形成最终的、完整的SQL语句
     //这是使用组合设计模式的好处
     rootSqlNode.apply(context);
-    //通过SqlSourceBuilder解析"#{}"占位符中的属性，并将SQL语句中的"#{}"占位符替换成"?"占位符
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
-    //
+    String sql = context.getSql();
+    // 拼接 SQL 的缓冲区留给本线程下一次调用
+    context.release();
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    //
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
-    //创建BoundSql对象
-    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    List<Object> shape = shapeCache == null ? null
+      : compiled ? Arrays.asList(sql, context.getParameters(), parameterType) : Arrays.asList(sql, parameterType);
+    BoundSql boundSql = shape == null ? null : shapeCache.getBoundSql(shape, parameterObject, context.getBindings());
+    if (boundSql == null) {
+      //通过SqlSourceBuilder解析"#{}"占位符中的属性，并将SQL语句中的"#{}"占位符替换成"?"占位符
+      SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+      SqlSource sqlSource = compiled
+        ? sqlSourceParser.build(sql, context.getParameters(), parameterType, context.getBindings())
+        : sqlSourceParser.parse(sql, parameterType, context.getBindings());
+      //创建BoundSql对象
+      boundSql = sqlSource.getBoundSql(parameterObject);
+      if (shape != null) {
+        shapeCache.put(shape, boundSql, context.getBindings());
+      }
+    }
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     //这里最终返回的 BoundSql 对象，包含了解析之后的 SQL 语句（sql 字段）、每个“#{}”占位符的属性信息（parameterMappings 字段 ，
     //List<ParameterMapping> 类型）、实参信息（parameterObject 字段）以及 DynamicContext
@@ -65,4 +86,12 @@ public class DynamicSqlSource implements SqlSource {
     return boundSql;
   }
 
+  /**
+   * @return the cache of the shapes of the generated SQL, null if disabled
+   * @since 3.5.4
+   */
+  public SqlShapeCache getShapeCache() {
+    return shapeCache;
+  }
+
 }
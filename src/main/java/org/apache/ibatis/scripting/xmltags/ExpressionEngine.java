@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * Evaluates the expressions of dynamic SQL: the {@code test} of {@code <if>} and {@code <when>}, the
+ * {@code collection} of {@code <foreach>} and the {@code value} of {@code <bind>}.
+ * <p>
+ * Expressions use the OGNL syntax. Set with the {@code expressionEngine} setting.
+ *
+ * @since 3.5.4
+ * @see OgnlExpressionEngine
+ * @see CompiledExpressionEngine
+ */
+public interface ExpressionEngine {
+
+  /**
+   * @param expression the expression
+   * @param root the object the properties of the expression are read from, usually the bindings of a
+   *          {@link DynamicContext}
+   * @return the value of the expression
+   */
+  Object getValue(String expression, Object root);
+
+}
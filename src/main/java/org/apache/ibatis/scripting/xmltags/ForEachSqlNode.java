@@ -15,7 +15,11 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
@@ -25,6 +29,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public class ForEachSqlNode implements SqlNode {
   public static final String ITEM_PREFIX = "__frch_";
+  // binding of the lists of items and indexes when they are bound by position
+  private static final String POSITIONAL_BINDINGS = "__frch";
 
   private final ExpressionEvaluator evaluator;
   private final String collectionExpression;
@@ -35,9 +41,13 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
   private final Configuration configuration;
+  // matches the item or the index at the start of a placeholder, compiled once instead of on every iteration
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
+  private final boolean positional;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
-    this.evaluator = new ExpressionEvaluator();
+    this.evaluator = new ExpressionEvaluator(configuration.getExpressionEngine());
     this.collectionExpression = collectionExpression;
     this.contents = contents;
     this.open = open;
@@ -46,6 +56,9 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.itemPattern = Pattern.compile("^\\s*" + item + "(?![^.,:\\s])");
+    this.indexPattern = index == null ? null : Pattern.compile("^\\s*" + index + "(?![^.,:\\s])");
+    this.positional = configuration.isPositionalForEachBinding();
   }
 
   @Override
@@ -57,6 +70,10 @@ public class ForEachSqlNode implements SqlNode {
     }
     boolean first = true;
     applyOpen(context);
+    // bound by position, the items and indexes are collected in two lists instead of a binding each
+    final int listNumber = positional ? context.getUniqueNumber() : -1;
+    final List<Object> items = positional && item != null ? new ArrayList<>() : null;
+    final List<Object> indexes = positional && index != null ? new ArrayList<>() : null;
     int i = 0;
     for (Object o : iterable) {
       DynamicContext oldContext = context;
@@ -70,13 +87,16 @@ public class ForEachSqlNode implements SqlNode {
       if (o instanceof Map.Entry) {
         @SuppressWarnings("unchecked")
         Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        applyIndex(context, mapEntry.getKey(), uniqueNumber);
-        applyItem(context, mapEntry.getValue(), uniqueNumber);
+        applyIndex(context, mapEntry.getKey(), uniqueNumber, indexes);
+        applyItem(context, mapEntry.getValue(), uniqueNumber, items);
       } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
+        applyIndex(context, i, uniqueNumber, indexes);
+        applyItem(context, o, uniqueNumber, items);
       }
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
+      String itemName = items == null ? itemizeItem(item, uniqueNumber) : positionalItem(item, listNumber, i);
+      String indexName = index == null ? null
+          : indexes == null ? itemizeItem(index, uniqueNumber) : positionalItem(index, listNumber, i);
+      contents.apply(new FilteredDynamicContext(context, itemPattern, itemName, indexPattern, indexName));
       if (first) {
         first = !((PrefixedContext) context).isPrefixApplied();
       }
@@ -86,20 +106,44 @@ public class ForEachSqlNode implements SqlNode {
     applyClose(context);
     context.getBindings().remove(item);
     context.getBindings().remove(index);
+    bindPositionally(context, item, listNumber, items);
+    bindPositionally(context, index, listNumber, indexes);
     return true;
   }
 
-  private void applyIndex(DynamicContext context, Object o, int i) {
+  private void applyIndex(DynamicContext context, Object o, int i, List<Object> indexes) {
     if (index != null) {
       context.bind(index, o);
-      context.bind(itemizeItem(index, i), o);
+      if (indexes != null) {
+        indexes.add(o);
+      } else {
+        context.bind(itemizeItem(index, i), o);
+      }
     }
   }
 
-  private void applyItem(DynamicContext context, Object o, int i) {
+  private void applyItem(DynamicContext context, Object o, int i, List<Object> items) {
     if (item != null) {
       context.bind(item, o);
-      context.bind(itemizeItem(item, i), o);
+      if (items != null) {
+        items.add(o);
+      } else {
+        context.bind(itemizeItem(item, i), o);
+      }
+    }
+  }
+
+  private static void bindPositionally(DynamicContext context, String name, int listNumber, List<Object> values) {
+    if (values != null) {
+      Map<String, Object> bindings = context.getBindings();
+      @SuppressWarnings("unchecked")
+      Map<String, Object> lists = bindings.containsKey(POSITIONAL_BINDINGS)
+          ? (Map<String, Object>) bindings.get(POSITIONAL_BINDINGS) : null;
+      if (lists == null) {
+        lists = new HashMap<>();
+        context.bind(POSITIONAL_BINDINGS, lists);
+      }
+      lists.put(name + "_" + listNumber, values);
     }
   }
 
@@ -119,18 +163,35 @@ public class ForEachSqlNode implements SqlNode {
     return ITEM_PREFIX + item + "_" + i;
   }
 
+  // the element at the position of the list bound for the item or index, e.g. __frch.item_0[42]
+  private static String positionalItem(String item, int listNumber, int position) {
+    return POSITIONAL_BINDINGS + "." + item + "_" + listNumber + "[" + position + "]";
+  }
+
+  // sql.trim().isEmpty() without copying
+  private static boolean isBlank(String sql) {
+    for (int i = 0; i < sql.length(); i++) {
+      if (sql.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
-    private final int index;
-    private final String itemIndex;
-    private final String item;
+    private final Pattern itemPattern;
+    private final String itemName;
+    private final Pattern indexPattern;
+    private final String indexName;
 
-    public FilteredDynamicContext(Configuration configuration,DynamicContext delegate, String itemIndex, String item, int i) {
-      super(configuration, null);
+    public FilteredDynamicContext(DynamicContext delegate, Pattern itemPattern, String itemName, Pattern indexPattern, String indexName) {
+      super(delegate);
       this.delegate = delegate;
-      this.index = i;
-      this.itemIndex = itemIndex;
-      this.item = item;
+      this.itemPattern = itemPattern;
+      this.itemName = itemName;
+      this.indexPattern = indexPattern;
+      this.indexName = indexName;
     }
 
     @Override
@@ -150,17 +211,38 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-        if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-        }
-        return "#{" + newContent + "}";
-      });
+      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> "#{" + itemize(content) + "}");
 
       delegate.appendSql(parser.parse(sql));
     }
 
+    @Override
+    public void appendParameterizedSql(String sql, List<String> parameters) {
+      List<String> itemized = new ArrayList<>(parameters.size());
+      for (String content : parameters) {
+        itemized.add(itemize(content));
+      }
+      delegate.appendParameterizedSql(sql, itemized);
+    }
+
+    private String itemize(String content) {
+      String newContent = itemPattern.matcher(content).replaceFirst(itemName);
+      if (indexPattern != null && newContent.equals(content)) {
+        newContent = indexPattern.matcher(content).replaceFirst(indexName);
+      }
+      return newContent;
+    }
+
+    @Override
+    public boolean isCompiled() {
+      return delegate.isCompiled();
+    }
+
+    @Override
+    public List<String> getParameters() {
+      return delegate.getParameters();
+    }
+
     @Override
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
@@ -175,7 +257,7 @@ public class ForEachSqlNode implements SqlNode {
     private boolean prefixApplied;
 
     public PrefixedContext(DynamicContext delegate, String prefix) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefix = prefix;
       this.prefixApplied = false;
@@ -197,11 +279,31 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      if (!prefixApplied && sql != null && sql.trim().length() > 0) {
+      applyPrefix(sql);
+      delegate.appendSql(sql);
+    }
+
+    @Override
+    public void appendParameterizedSql(String sql, List<String> parameters) {
+      applyPrefix(sql);
+      delegate.appendParameterizedSql(sql, parameters);
+    }
+
+    private void applyPrefix(String sql) {
+      if (!prefixApplied && sql != null && !isBlank(sql)) {
         delegate.appendSql(prefix);
         prefixApplied = true;
       }
-      delegate.appendSql(sql);
+    }
+
+    @Override
+    public boolean isCompiled() {
+      return delegate.isCompiled();
+    }
+
+    @Override
+    public List<String> getParameters() {
+      return delegate.getParameters();
     }
 
     @Override
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The SQL and parameter mappings a {@link DynamicSqlSource} built for the shapes of SQL it generated last.
+ * <p>
+ * A shape is identified by the SQL the nodes generate before the {@code #{}} placeholders are parsed, which reflects
+ * exactly the branches taken, the sizes of the collections iterated and any {@code ${}} substitutions, and by the type
+ * of the parameter object. When it repeats, the SQL with {@code ?} and the parameter mappings are reused instead of
+ * being parsed and resolved again, and the driver is given the same string. Because the types of properties read from
+ * the additional parameters depend on their values, they are checked before a shape is reused.
+ * The least recently used shapes are dropped when there are more than {@code size} of them.
+ *
+ * @since 3.5.4
+ */
+public class SqlShapeCache {
+
+  // statements with more parameters, e.g. long IN-lists, rarely repeat and would hold a lot of memory
+  private static final int MAX_PARAMETER_MAPPINGS = 1000;
+
+  private final Configuration configuration;
+  private final Map<List<Object>, Shape> shapes;
+  private final int size;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param size the maximum number of shapes to keep
+   */
+  public SqlShapeCache(Configuration configuration, final int size) {
+    this.configuration = configuration;
+    this.size = size;
+    this.shapes = new LinkedHashMap<List<Object>, Shape>(16, .75F, true) {
+      private static final long serialVersionUID = -4398431823187374528L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, Shape> eldest) {
+        return size() > size;
+      }
+    };
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public synchronized int getShapeCount() {
+    return shapes.size();
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the ratio of calls that reused a shape, 0 before the first call
+   */
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  public synchronized void clear() {
+    shapes.clear();
+  }
+
+  /**
+   * @param key the generated SQL, its parameters when compiled, and the parameter type
+   * @return null if the shape was not seen or the types of its properties changed
+   */
+  BoundSql getBoundSql(List<Object> key, Object parameterObject, Map<String, Object> additionalParameters) {
+    Shape shape;
+    synchronized (this) {
+      shape = shapes.get(key);
+    }
+    if (shape == null || !Arrays.equals(shape.additionalParameterTypes,
+        getAdditionalParameterTypes(shape.parameterMappings, additionalParameters))) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return new BoundSql(configuration, shape.sql, shape.parameterMappings, parameterObject);
+  }
+
+  void put(List<Object> key, BoundSql boundSql, Map<String, Object> additionalParameters) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (parameterMappings.size() <= MAX_PARAMETER_MAPPINGS) {
+      Shape shape = new Shape(boundSql.getSql(), parameterMappings,
+          getAdditionalParameterTypes(parameterMappings, additionalParameters));
+      synchronized (this) {
+        shapes.put(key, shape);
+      }
+    }
+  }
+
+  /**
+   * Gets the types {@link org.apache.ibatis.builder.SqlSourceBuilder} reads from the additional parameters, null for
+   * properties that are not among them.
+   */
+  private Class<?>[] getAdditionalParameterTypes(List<ParameterMapping> parameterMappings, Map<String, Object> additionalParameters) {
+    MetaObject metaParameters = configuration.newMetaObject(additionalParameters);
+    Class<?>[] types = new Class<?>[parameterMappings.size()];
+    for (int i = 0; i < types.length; i++) {
+      String property = parameterMappings.get(i).getProperty();
+      if (metaParameters.hasGetter(property)) {
+        types[i] = metaParameters.getGetterType(property);
+      }
+    }
+    return types;
+  }
+
+  private static class Shape {
+    private final String sql;
+    private final List<ParameterMapping> parameterMappings;
+    private final Class<?>[] additionalParameterTypes;
+
+    Shape(String sql, List<ParameterMapping> parameterMappings, Class<?>[] additionalParameterTypes) {
+      this.sql = sql;
+      this.parameterMappings = parameterMappings;
+      this.additionalParameterTypes = additionalParameterTypes;
+    }
+  }
+
+}
@@ -69,28 +69,64 @@ public class TrimSqlNode implements SqlNode {
     return Collections.emptyList();
   }
 
+  // String.trim() in place
+  private static void trim(StringBuilder sql) {
+    int end = sql.length();
+    while (end > 0 && sql.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    sql.setLength(end);
+    int start = 0;
+    while (start < end && sql.charAt(start) <= ' ') {
+      start++;
+    }
+    sql.delete(0, start);
+  }
+
+  /**
+   * Matches the overrides, which are upper case, without copying the SQL to upper case.
+   */
+  private static boolean regionMatchesUpperCase(CharSequence sql, int offset, String upperCase) {
+    if (offset < 0 || offset + upperCase.length() > sql.length()) {
+      return false;
+    }
+    for (int i = 0; i < upperCase.length(); i++) {
+      if (Character.toUpperCase(sql.charAt(offset + i)) != upperCase.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private class FilteredDynamicContext extends DynamicContext {
     private DynamicContext delegate;
     private boolean prefixApplied;
     private boolean suffixApplied;
     private StringBuilder sqlBuffer;
+    private final List<String> parameters;
 
     public FilteredDynamicContext(DynamicContext delegate) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefixApplied = false;
       this.suffixApplied = false;
       this.sqlBuffer = new StringBuilder();
+      this.parameters = delegate.isCompiled() ? new ArrayList<>() : null;
     }
 
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      trim(sqlBuffer);
+      if (sqlBuffer.length() > 0) {
+        // both overrides are matched against the trimmed SQL as it was before either is applied
+        int suffixLength = getSuffixToOverrideLength(sqlBuffer);
+        applyPrefix(sqlBuffer);
+        applySuffix(sqlBuffer, suffixLength);
+      }
+      if (parameters != null) {
+        delegate.appendParameterizedSql(sqlBuffer.toString(), parameters);
+      } else {
+        delegate.appendSql(sqlBuffer.toString());
       }
-      delegate.appendSql(sqlBuffer.toString());
     }
 
     @Override
@@ -110,7 +146,23 @@ public class TrimSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
+      sqlBuffer.append(parameters == null ? sql : parameterize(sql, parameters));
+    }
+
+    @Override
+    public void appendParameterizedSql(String sql, List<String> parameters) {
       sqlBuffer.append(sql);
+      this.parameters.addAll(parameters);
+    }
+
+    @Override
+    public boolean isCompiled() {
+      return parameters != null;
+    }
+
+    @Override
+    public List<String> getParameters() {
+      return delegate.getParameters();
     }
 
     @Override
@@ -118,12 +170,12 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applyPrefix(StringBuilder sql) {
       if (!prefixApplied) {
         prefixApplied = true;
         if (prefixesToOverride != null) {
           for (String toRemove : prefixesToOverride) {
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
+            if (regionMatchesUpperCase(sql, 0, toRemove)) {
               sql.delete(0, toRemove.trim().length());
               break;
             }
@@ -136,19 +188,23 @@ public class TrimSqlNode implements SqlNode {
       }
     }
 
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
-      if (!suffixApplied) {
-        suffixApplied = true;
-        if (suffixesToOverride != null) {
-          for (String toRemove : suffixesToOverride) {
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
-              break;
-            }
+    private int getSuffixToOverrideLength(StringBuilder sql) {
+      if (suffixesToOverride != null) {
+        for (String toRemove : suffixesToOverride) {
+          String trimmedToRemove = toRemove.trim();
+          if (regionMatchesUpperCase(sql, sql.length() - toRemove.length(), toRemove)
+              || regionMatchesUpperCase(sql, sql.length() - trimmedToRemove.length(), trimmedToRemove)) {
+            return trimmedToRemove.length();
           }
         }
+      }
+      return 0;
+    }
+
+    private void applySuffix(StringBuilder sql, int suffixToOverrideLength) {
+      if (!suffixApplied) {
+        suffixApplied = true;
+        sql.setLength(sql.length() - suffixToOverrideLength);
         if (suffix != null) {
           sql.append(" ");
           sql.append(suffix);
@@ -22,15 +22,24 @@ public class VarDeclSqlNode implements SqlNode {
 
   private final String name;
   private final String expression;
+  private final ExpressionEngine expressionEngine;
 
   public VarDeclSqlNode(String var, String exp) {
+    this(var, exp, new OgnlExpressionEngine());
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public VarDeclSqlNode(String var, String exp, ExpressionEngine expressionEngine) {
     name = var;
     expression = exp;
+    this.expressionEngine = expressionEngine;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    final Object value = OgnlCache.getValue(expression, context.getBindings());
+    final Object value = expressionEngine.getValue(expression, context.getBindings());
     context.bind(name, value);
     return true;
   }
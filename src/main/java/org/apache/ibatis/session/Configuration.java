@@ -26,7 +26,9 @@ import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -36,6 +38,7 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.AutoMappingPlanCache;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
@@ -55,6 +58,7 @@ import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
 import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.LambdaReflectorFactory;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
@@ -64,6 +68,9 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -94,6 +101,12 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean compileDynamicSql;
+  protected boolean positionalForEachBinding;
+  protected boolean batchGroupBySql;
+  protected boolean retainBatchParameters = true;
+  protected boolean adaptiveFetchSize;
+  protected int dynamicSqlShapeCacheSize = 16;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -103,6 +116,8 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer maxParametersPerStatement;
+  protected Integer batchFlushSize;
   protected ResultSetType defaultResultSetType;
   //Executor的类型,有三种.
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
@@ -116,6 +131,7 @@ public class Configuration {
 
   protected boolean lazyLoadingEnabled = false;
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
+  protected ExpressionEngine expressionEngine = new OgnlExpressionEngine();
 
   protected String databaseId;
   /**
@@ -130,6 +146,7 @@ public class Configuration {
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
+  protected final AutoMappingPlanCache autoMappingPlanCache = new AutoMappingPlanCache();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
 
@@ -174,6 +191,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
+    typeAliasRegistry.registerAlias("OFFHEAP", OffHeapCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -191,6 +210,11 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("LAMBDA", LambdaReflectorFactory.class);
+
+    typeAliasRegistry.registerAlias("OGNL", OgnlExpressionEngine.class);
+    typeAliasRegistry.registerAlias("COMPILED", CompiledExpressionEngine.class);
+
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     languageRegistry.register(RawLanguageDriver.class);
   }
@@ -249,6 +273,122 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isCompileDynamicSql() {
+    return compileDynamicSql;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setCompileDynamicSql(boolean compileDynamicSql) {
+    this.compileDynamicSql = compileDynamicSql;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getDynamicSqlShapeCacheSize() {
+    return dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * @param dynamicSqlShapeCacheSize the number of shapes of generated SQL each dynamic statement keeps, 0 disables it
+   * @since 3.5.4
+   */
+  public void setDynamicSqlShapeCacheSize(int dynamicSqlShapeCacheSize) {
+    this.dynamicSqlShapeCacheSize = dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isPositionalForEachBinding() {
+    return positionalForEachBinding;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setPositionalForEachBinding(boolean positionalForEachBinding) {
+    this.positionalForEachBinding = positionalForEachBinding;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getMaxParametersPerStatement() {
+    return maxParametersPerStatement;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setMaxParametersPerStatement(Integer maxParametersPerStatement) {
+    this.maxParametersPerStatement = maxParametersPerStatement;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getBatchFlushSize() {
+    return batchFlushSize;
+  }
+
+  /**
+   * @param batchFlushSize the number of statements the batch executor buffers before executing them, null for no limit
+   * @since 3.5.4
+   */
+  public void setBatchFlushSize(Integer batchFlushSize) {
+    this.batchFlushSize = batchFlushSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isBatchGroupBySql() {
+    return batchGroupBySql;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setBatchGroupBySql(boolean batchGroupBySql) {
+    this.batchGroupBySql = batchGroupBySql;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isRetainBatchParameters() {
+    return retainBatchParameters;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setRetainBatchParameters(boolean retainBatchParameters) {
+    this.retainBatchParameters = retainBatchParameters;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * @param adaptiveFetchSize whether selects without a fetchSize of their own get one from the number of results and
+   *          columns they returned recently, and presize their result lists
+   * @since 3.5.4
+   */
+  public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -346,6 +486,23 @@ public class Configuration {
     this.proxyFactory = proxyFactory;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public ExpressionEngine getExpressionEngine() {
+    return expressionEngine;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setExpressionEngine(ExpressionEngine expressionEngine) {
+    if (expressionEngine == null) {
+      expressionEngine = new OgnlExpressionEngine();
+    }
+    this.expressionEngine = expressionEngine;
+  }
+
   public boolean isAggressiveLazyLoading() {
     return aggressiveLazyLoading;
   }
@@ -466,6 +623,27 @@ public class Configuration {
     return typeHandlerRegistry;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public AutoMappingPlanCache getAutoMappingPlanCache() {
+    return autoMappingPlanCache;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getAutoMappingPlanCacheSize() {
+    return autoMappingPlanCache.getSize();
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public void setAutoMappingPlanCacheSize(int autoMappingPlanCacheSize) {
+    autoMappingPlanCache.setSize(autoMappingPlanCacheSize);
+  }
+
   /**
    * Set a default {@link TypeHandler} class for {@link Enum}.
    * A default {@link TypeHandler} is {@link org.apache.ibatis.type.EnumTypeHandler}.
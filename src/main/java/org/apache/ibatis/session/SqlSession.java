@@ -19,8 +19,10 @@ import java.io.Closeable;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
 import org.apache.ibatis.executor.BatchResult;
 
 /**
@@ -143,6 +145,31 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Publishes the items of a cursor as the subscriber requests them, reading them on the given executor so no thread
+   * waits for the subscriber. The session must stay open until the cursor is consumed or the subscription cancelled.
+   * @param <T> the returned cursor element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param executor Runs the tasks reading the cursor.
+   * @return Publisher of mapped objects
+   * @since 3.5.4
+   */
+  <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, Executor executor);
+
+  /**
+   * Publishes the items of a cursor as the subscriber requests them, reading them on the given executor so no thread
+   * waits for the subscriber. The session must stay open until the cursor is consumed or the subscription cancelled.
+   * @param <T> the returned cursor element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @param executor Runs the tasks reading the cursor.
+   * @return Publisher of mapped objects
+   * @since 3.5.4
+   */
+  <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds, Executor executor);
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -15,18 +15,26 @@
  */
 package org.apache.ibatis.session;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
+import org.apache.ibatis.cursor.defaults.DefaultCursorPublisher;
+import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -196,6 +204,38 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, Executor executor) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT, executor);
+  }
+
+  @Override
+  public <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds, Executor executor) {
+    if (localSqlSession.get() != null) {
+      return sqlSessionProxy.selectPublisher(statement, parameter, rowBounds, executor);
+    }
+    // 没有受管会话时, 自动会话要活到订阅结束: 由第一个读取任务打开, 随游标在完成, 失败或取消时关闭
+    try {
+      MappedStatement ms = getConfiguration().getMappedStatement(statement);
+      return new DefaultCursorPublisher<>(() -> selectCursorInOwnSession(statement, parameter, rowBounds), executor,
+          DefaultCursorPublisher.chunkSizeOf(ms));
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  private <T> Cursor<T> selectCursorInOwnSession(String statement, Object parameter, RowBounds rowBounds) {
+    SqlSession autoSqlSession = openSession();
+    try {
+      return new SessionCursor<>(autoSqlSession.<T>selectCursor(statement, parameter, rowBounds), autoSqlSession);
+    } catch (RuntimeException e) {
+      autoSqlSession.close();
+      throw e;
+    }
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.selectList(statement);
@@ -337,6 +377,46 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     }
   }
 
+  private static class SessionCursor<T> implements Cursor<T> {
+
+    private final Cursor<T> cursor;
+    private final SqlSession sqlSession;
+
+    SessionCursor(Cursor<T> cursor, SqlSession sqlSession) {
+      this.cursor = cursor;
+      this.sqlSession = sqlSession;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return cursor.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return cursor.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return cursor.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return cursor.iterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        cursor.close();
+      } finally {
+        sqlSession.close();
+      }
+    }
+  }
+
   private class SqlSessionInterceptor implements InvocationHandler {
     public SqlSessionInterceptor() {
         // Prevent Synthetic Access
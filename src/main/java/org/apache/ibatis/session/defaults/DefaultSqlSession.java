@@ -16,15 +16,20 @@
 package org.apache.ibatis.session.defaults;
 
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
+import org.apache.ibatis.cursor.defaults.DefaultCursorPublisher;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -134,6 +139,24 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, java.util.concurrent.Executor executor) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT, executor);
+  }
+
+  @Override
+  public <T> CursorFlow.Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds, java.util.concurrent.Executor executor) {
+    try {
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      return new DefaultCursorPublisher<>(() -> selectCursor(statement, parameter, rowBounds), executor,
+          DefaultCursorPublisher.chunkSizeOf(ms));
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return this.selectList(statement, null);
@@ -200,7 +223,18 @@ public class DefaultSqlSession implements SqlSession {
     try {
       dirty = true;
       MappedStatement ms = configuration.getMappedStatement(statement);
-      return executor.update(ms, wrapCollection(parameter));
+      Object parameterObject = wrapCollection(parameter);
+      List<Object> chunks = splitParameter(ms, parameterObject);
+      if (chunks == null) {
+        return executor.update(ms, parameterObject);
+      }
+      // 参数超过上限时拆成多条语句执行, 返回影响行数之和
+      int updateCount = 0;
+      for (Object chunk : chunks) {
+        int count = executor.update(ms, chunk);
+        updateCount = count == BatchExecutor.BATCH_UPDATE_RETURN_VALUE ? count : updateCount + count;
+      }
+      return updateCount;
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
     } finally {
@@ -338,6 +372,71 @@ public class DefaultSqlSession implements SqlSession {
     return object;
   }
 
+  /**
+   * Splits the list passed as the parameter of an insert, or as one of the arguments of a mapper method, so that each
+   * statement binds at most {@link Configuration#getMaxParametersPerStatement()} parameters. Updates and deletes are
+   * never split, as their predicates may need to see the whole list. The parameters bound per element and those bound
+   * once are measured by building the SQL for the first element and, only if the list may be too long, for the first
+   * two.
+   * <p>
+   * The statements are not atomic: with auto-commit, a failure leaves the rows of the statements that already ran.
+   *
+   * @return the parameter of each statement, or null if the statement does not need to or can not be split
+   */
+  private List<Object> splitParameter(MappedStatement ms, Object parameterObject) {
+    Integer maxParameters = configuration.getMaxParametersPerStatement();
+    if (maxParameters == null || ms.getSqlCommandType() != SqlCommandType.INSERT
+        || !(parameterObject instanceof StrictMap || parameterObject instanceof ParamMap)) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    Map<String, Object> parameterMap = (Map<String, Object>) parameterObject;
+    List<?> list = null;
+    for (Object value : parameterMap.values()) {
+      if (value instanceof List && value != list) {
+        if (list != null) {
+          // which one to split is ambiguous
+          return null;
+        }
+        list = (List<?>) value;
+      }
+    }
+    if (list == null || list.size() < 2) {
+      return null;
+    }
+    int forOne = countParameters(ms, parameterMap, list, list.subList(0, 1));
+    if ((long) forOne * list.size() <= maxParameters) {
+      // even if every parameter was bound per element
+      return null;
+    }
+    int perElement = countParameters(ms, parameterMap, list, list.subList(0, 2)) - forOne;
+    int fixed = forOne - perElement;
+    if (perElement <= 0 || fixed + (long) perElement * list.size() <= maxParameters) {
+      return null;
+    }
+    int chunkSize = (maxParameters - fixed) / perElement;
+    if (chunkSize < 1) {
+      return null;
+    }
+    List<Object> chunks = new ArrayList<>();
+    for (int from = 0; from < list.size(); from += chunkSize) {
+      chunks.add(replaceList(parameterMap, list, list.subList(from, Math.min(from + chunkSize, list.size()))));
+    }
+    return chunks;
+  }
+
+  private int countParameters(MappedStatement ms, Map<String, Object> parameterMap, List<?> list, List<?> subList) {
+    return ms.getBoundSql(replaceList(parameterMap, list, subList)).getParameterMappings().size();
+  }
+
+  private Map<String, Object> replaceList(Map<String, Object> parameterMap, List<?> list, List<?> subList) {
+    Map<String, Object> copy = parameterMap instanceof StrictMap ? new StrictMap<>() : new ParamMap<>();
+    for (Map.Entry<String, Object> entry : parameterMap.entrySet()) {
+      copy.put(entry.getKey(), entry.getValue() == list ? subList : entry.getValue());
+    }
+    return copy;
+  }
+
   public static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -5741767162221585340L;
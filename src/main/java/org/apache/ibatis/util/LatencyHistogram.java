@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with power-of-two buckets that can be recorded from many threads without locking or
+ * allocating.
+ * <p>
+ * Bucket {@code i} counts durations in nanoseconds that are below {@link #getBucketUpperBound(int)}, i.e.
+ * {@code 2^i}, and at least the upper bound of the previous bucket. Percentiles are therefore reported as the upper
+ * bound of the bucket they fall into, which overestimates by less than a factor of two.
+ */
+public class LatencyHistogram {
+
+  /**
+   * The last bucket (2^40 ns, about 18 minutes) also counts everything longer.
+   */
+  public static final int BUCKET_COUNT = 41;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKET_COUNT - 1));
+    count.increment();
+    totalNanos.add(nanos);
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  public void record(long duration, TimeUnit unit) {
+    record(unit.toNanos(duration));
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMeanNanos() {
+    long records = count.sum();
+    return records == 0 ? 0 : totalNanos.sum() / records;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Gets the upper bound of the bucket that contains the given percentile.
+   *
+   * @param percentile the percentile between 0 and 100
+   * @return the upper bound in nanoseconds, 0 if nothing was recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] counts = getBucketCounts();
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && counts[i] > 0) {
+        return Math.min(getBucketUpperBound(i), getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  /**
+   * Gets a snapshot of the bucket counts, suitable for exporting the histogram.
+   *
+   * @return the number of durations recorded in each bucket
+   */
+  public long[] getBucketCounts() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  public static long getBucketUpperBound(int bucket) {
+    return 1L << bucket;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount()
+        + ", mean=" + getMeanNanos() / 1000 + "us"
+        + ", p50=" + getPercentileNanos(50) / 1000 + "us"
+        + ", p99=" + getPercentileNanos(99) / 1000 + "us"
+        + ", max=" + getMaxNanos() / 1000 + "us";
+  }
+
+}
@@ -43,6 +43,8 @@ import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
@@ -77,6 +79,16 @@ class XmlConfigBuilderTest {
       assertNotNull(config);
       assertThat(config.getAutoMappingBehavior()).isEqualTo(AutoMappingBehavior.PARTIAL);
       assertThat(config.getAutoMappingUnknownColumnBehavior()).isEqualTo(AutoMappingUnknownColumnBehavior.NONE);
+      assertThat(config.getAutoMappingPlanCacheSize()).isEqualTo(1024);
+      assertThat(config.isCompileDynamicSql()).isFalse();
+      assertThat(config.getExpressionEngine()).isInstanceOf(OgnlExpressionEngine.class);
+      assertThat(config.getDynamicSqlShapeCacheSize()).isEqualTo(16);
+      assertThat(config.isPositionalForEachBinding()).isFalse();
+      assertThat(config.getMaxParametersPerStatement()).isNull();
+      assertThat(config.getBatchFlushSize()).isNull();
+      assertThat(config.isBatchGroupBySql()).isFalse();
+      assertThat(config.isRetainBatchParameters()).isTrue();
+      assertThat(config.isAdaptiveFetchSize()).isFalse();
       assertThat(config.isCacheEnabled()).isTrue();
       assertThat(config.getProxyFactory()).isInstanceOf(JavassistProxyFactory.class);
       assertThat(config.isLazyLoadingEnabled()).isFalse();
@@ -171,6 +183,16 @@ class XmlConfigBuilderTest {
 
       assertThat(config.getAutoMappingBehavior()).isEqualTo(AutoMappingBehavior.NONE);
       assertThat(config.getAutoMappingUnknownColumnBehavior()).isEqualTo(AutoMappingUnknownColumnBehavior.WARNING);
+      assertThat(config.getAutoMappingPlanCacheSize()).isEqualTo(16);
+      assertThat(config.isCompileDynamicSql()).isTrue();
+      assertThat(config.getExpressionEngine()).isInstanceOf(CompiledExpressionEngine.class);
+      assertThat(config.getDynamicSqlShapeCacheSize()).isEqualTo(32);
+      assertThat(config.isPositionalForEachBinding()).isTrue();
+      assertThat(config.getMaxParametersPerStatement()).isEqualTo(2100);
+      assertThat(config.getBatchFlushSize()).isEqualTo(1000);
+      assertThat(config.isBatchGroupBySql()).isTrue();
+      assertThat(config.isRetainBatchParameters()).isFalse();
+      assertThat(config.isAdaptiveFetchSize()).isTrue();
       assertThat(config.isCacheEnabled()).isFalse();
       assertThat(config.getProxyFactory()).isInstanceOf(CglibProxyFactory.class);
       assertThat(config.isLazyLoadingEnabled()).isTrue();
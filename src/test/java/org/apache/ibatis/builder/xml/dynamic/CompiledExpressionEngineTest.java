@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml.dynamic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionEngineTest {
+
+  private final List<String> fallbacks = new ArrayList<>();
+  private final ExpressionEngine engine = new CompiledExpressionEngine((expression, root) -> {
+    fallbacks.add(expression);
+    return "fallback";
+  });
+  private final ExpressionEvaluator evaluator = new ExpressionEvaluator(engine);
+
+  @Test
+  void shouldEvaluateCommonExpressionsWithoutFallback() {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("author", author);
+    parameter.put("ids", Arrays.asList(1, 2, 3));
+    parameter.put("limit", 10L);
+
+    assertTrue(evaluator.evaluateBoolean("author != null and author.username == 'cbegin'", parameter));
+    assertTrue(evaluator.evaluateBoolean("author.password == null && author.id gte 1", parameter));
+    assertFalse(evaluator.evaluateBoolean("!(author.id < 1 || ids.size() > 2)", parameter));
+    assertTrue(evaluator.evaluateBoolean("ids != null and not ids.isEmpty()", parameter));
+    assertTrue(evaluator.evaluateBoolean("limit == 10 and limit > 9.5 and author.username.length() == 6", parameter));
+    assertFalse(evaluator.evaluateBoolean("missing", parameter));
+    assertEquals(author, engine.getValue("author", parameter));
+    assertEquals(1, engine.getValue("missing or author.id", parameter));
+    assertTrue(fallbacks.isEmpty());
+  }
+
+  @Test
+  void shouldFallBackForUnsupportedSyntax() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "cbegin");
+    assertEquals("fallback", engine.getValue("name.startsWith('c')", parameter));
+    assertEquals("fallback", engine.getValue("name + 1", parameter));
+    assertEquals("fallback", engine.getValue("@java.lang.Math@max(1, 2)", parameter));
+    assertEquals(Arrays.asList("name.startsWith('c')", "name + 1", "@java.lang.Math@max(1, 2)"), fallbacks);
+  }
+
+  @Test
+  void shouldFallBackWhenResultDependsOnConversions() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "c");
+    parameter.put("author", null);
+    assertEquals("fallback", engine.getValue("name == 'c'", parameter));
+    assertEquals("fallback", engine.getValue("author.username", parameter));
+    assertEquals(Arrays.asList("name == 'c'", "author.username"), fallbacks);
+  }
+
+  @Test
+  void shouldReportFailingGetterWithoutFallback() {
+    Map<String, Object> parameter = new HashMap<>();
+    FailingBean bean = new FailingBean();
+    parameter.put("bean", bean);
+    BuilderException e = assertThrows(BuilderException.class, () -> engine.getValue("bean.name != null", parameter));
+    assertTrue(e.getMessage().contains("bean.name != null"));
+    assertTrue(e.getMessage().contains("getter failed"));
+    assertEquals(1, bean.calls);
+    assertTrue(fallbacks.isEmpty());
+  }
+
+  @Test
+  void shouldUseReflectorFactoryOfConfiguration() {
+    List<Class<?>> reflectedTypes = new ArrayList<>();
+    Configuration configuration = new Configuration();
+    configuration.setReflectorFactory(new DefaultReflectorFactory() {
+      @Override
+      public Reflector findForClass(Class<?> type) {
+        reflectedTypes.add(type);
+        return super.findForClass(type);
+      }
+    });
+    ExpressionEngine configured = new CompiledExpressionEngine(configuration);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("author", new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS));
+    assertEquals("cbegin", configured.getValue("author.username", parameter));
+    assertEquals(Arrays.asList(Author.class), reflectedTypes);
+  }
+
+  public static class FailingBean {
+    private int calls;
+
+    public String getName() {
+      calls++;
+      throw new IllegalStateException("getter failed");
+    }
+  }
+
+}
@@ -16,6 +16,7 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -30,6 +31,7 @@ import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
+import org.apache.ibatis.scripting.xmltags.CompiledTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 import org.apache.ibatis.scripting.xmltags.IfSqlNode;
@@ -357,6 +359,72 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals(0, boundSql.getParameterMappings().size());
   }
 
+  @Test
+  void shouldBuildLargeInListRepeatedly() throws Exception {
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      ids.add(i);
+    }
+    final Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("ids", ids);
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG"),
+      new WhereSqlNode(new Configuration(), mixedContents(
+        new ForEachSqlNode(new Configuration(), mixedContents(
+          new TextSqlNode("#{id}")), "ids", null, "id", "and id in (", ")", ","))));
+    BoundSql first = source.getBoundSql(parameterObject);
+    BoundSql second = source.getBoundSql(parameterObject);
+    assertEquals(first.getSql(), second.getSql());
+    Assertions.assertTrue(first.getSql().startsWith("SELECT * FROM BLOG WHERE  id in (?,?,"));
+    assertEquals(10000, second.getParameterMappings().size());
+    assertEquals("__frch_id_9999", second.getParameterMappings().get(9999).getProperty());
+  }
+
+  @Test
+  void shouldBindForEachItemsByPosition() {
+    final Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("names", Arrays.asList("a", "b", "c"));
+    final Configuration positional = new Configuration();
+    positional.setPositionalForEachBinding(true);
+    BoundSql expected = createSqlSourceForPositionalBinding(new Configuration()).getBoundSql(parameterObject);
+    BoundSql boundSql = createSqlSourceForPositionalBinding(positional).getBoundSql(parameterObject);
+    assertEquals(expected.getSql(), boundSql.getSql());
+    assertEquals(6, boundSql.getParameterMappings().size());
+    assertEquals("__frch.i_0[1]", boundSql.getParameterMappings().get(2).getProperty());
+    assertEquals("__frch.name_0[1]", boundSql.getParameterMappings().get(3).getProperty());
+    assertEquals(1, boundSql.getAdditionalParameter("__frch.i_0[1]"));
+    assertEquals("b", boundSql.getAdditionalParameter("__frch.name_0[1]"));
+    Assertions.assertFalse(boundSql.hasAdditionalParameter("__frch_name_1"));
+  }
+
+  private DynamicSqlSource createSqlSourceForPositionalBinding(Configuration configuration) {
+    return new DynamicSqlSource(configuration, mixedContents(
+      new TextSqlNode("INSERT INTO BLOG (ID, NAME) VALUES"),
+      new ForEachSqlNode(configuration, mixedContents(
+        new TextSqlNode("(#{i}, #{name})")), "names", "i", "name", "", "", ",")));
+  }
+
+  @Test
+  void shouldReuseSqlOfSameShape() {
+    final Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+      new TextSqlNode("SELECT * FROM BLOG WHERE ID IN"),
+      new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{id}")), "ids", null, "id", "(", ")", ",")));
+    final Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("ids", Arrays.asList(1, 2));
+    BoundSql first = source.getBoundSql(parameterObject);
+    parameterObject.put("ids", Arrays.asList(3, 4));
+    BoundSql second = source.getBoundSql(parameterObject);
+    assertSame(first.getSql(), second.getSql());
+    assertEquals(3, second.getAdditionalParameter("__frch_id_0"));
+    parameterObject.put("ids", Arrays.asList(5L, 6L));
+    BoundSql third = source.getBoundSql(parameterObject);
+    assertEquals(Long.class, third.getParameterMappings().get(0).getJavaType());
+    parameterObject.put("ids", Arrays.asList(7, 8, 9));
+    source.getBoundSql(parameterObject);
+    assertEquals(1, source.getShapeCache().getHitCount());
+    assertEquals(3, source.getShapeCache().getMissCount());
+  }
+
   @Test
   void shouldPerformStrictMatchOnForEachVariableSubstitution() throws Exception {
     final Map<String, Object> param = new HashMap<>();
@@ -379,6 +447,39 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldBuildSameSqlWhenCompiled() {
+    final Map<String, Object> param = new HashMap<>();
+    param.put("name", "Steve");
+    param.put("ids", Arrays.asList(1, 2, 3));
+    param.put("column", "ID");
+    final Configuration interpreted = new Configuration();
+    final Configuration compiled = new Configuration();
+    compiled.setCompileDynamicSql(true);
+    BoundSql expected = createSqlSourceForCompilation(interpreted).getBoundSql(param);
+    BoundSql actual = createSqlSourceForCompilation(compiled).getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE  NAME = ?AND ID in (?,?,?)AND ID > ? ORDER BY ID", expected.getSql());
+    assertEquals(expected.getSql(), actual.getSql());
+    assertEquals(5, actual.getParameterMappings().size());
+    for (int i = 0; i < expected.getParameterMappings().size(); i++) {
+      assertEquals(expected.getParameterMappings().get(i).getProperty(), actual.getParameterMappings().get(i).getProperty());
+      assertEquals(expected.getParameterMappings().get(i).getJavaType(), actual.getParameterMappings().get(i).getJavaType());
+    }
+    assertEquals("__frch_id_2", actual.getParameterMappings().get(3).getProperty());
+    assertEquals("name", actual.getParameterMappings().get(4).getProperty());
+  }
+
+  private DynamicSqlSource createSqlSourceForCompilation(Configuration configuration) {
+    return new DynamicSqlSource(configuration, mixedContents(
+      new CompiledTextSqlNode("SELECT * FROM BLOG"),
+      new WhereSqlNode(configuration, mixedContents(
+        new IfSqlNode(mixedContents(new CompiledTextSqlNode("AND NAME = #{name}")), "name != null"),
+        new IfSqlNode(mixedContents(new CompiledTextSqlNode("OR TITLE = #{title}")), "title != null"),
+        new ForEachSqlNode(configuration, mixedContents(new CompiledTextSqlNode("#{id}")), "ids", null, "id", "AND ID in (", ")", ","),
+        new TextSqlNode("AND ${column} > #{name}"))),
+      new TextSqlNode("ORDER BY ${column}")));
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
@@ -25,7 +25,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.util.Date;
+import java.util.List;
 
 class CacheKeyTest {
 
@@ -87,6 +89,33 @@ class CacheKeyTest {
     assertEquals(key1, key2);
   }
 
+  @Test
+  void shouldTestCacheKeysBuiltFromPrefixEqual() {
+    CacheKey prefix = new CacheKey(1);
+    prefix.update("statement");
+    CacheKey key1 = new CacheKey(prefix, 2);
+    key1.update(1);
+    key1.update("hello");
+    key1.update(null);
+    CacheKey key2 = new CacheKey(new Object[] { "statement", 1, "hello", null });
+    assertEquals(key1, key2);
+    assertEquals(key2, key1);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+    assertEquals(4, key1.getUpdateCount());
+    assertEquals(1, prefix.getUpdateCount());
+  }
+
+  @Test
+  void shouldNotShareUpdatesWithClone() throws Exception {
+    CacheKey key1 = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey key2 = key1.clone();
+    key2.update("world");
+    assertNotEquals(key1, key2);
+    assertEquals(2, key1.getUpdateCount());
+    assertEquals(new CacheKey(new Object[] { 1, "hello", "world" }), key2);
+  }
+
   @Test
   void serializationExceptionTest() {
     CacheKey cacheKey = new CacheKey();
@@ -103,6 +132,22 @@ class CacheKeyTest {
     Assertions.assertEquals(cacheKey, serialize(cacheKey));
   }
 
+  @Test
+  void shouldKeepSerializedFormAndRecomputeHashAfterDeserialization() throws Exception {
+    ObjectStreamClass streamClass = ObjectStreamClass.lookup(CacheKey.class);
+    assertEquals(List.class, streamClass.getField("updateList").getType());
+    assertNull(streamClass.getField("hash64"));
+
+    CacheKey cacheKey = new CacheKey(new Object[] { 1, "hello", null, new byte[] { 1 } });
+    CacheKey deserialized = serialize(cacheKey);
+    assertEquals(cacheKey, deserialized);
+    assertEquals(deserialized, cacheKey);
+    assertEquals(cacheKey.hashCode(), deserialized.hashCode());
+    cacheKey.update("world");
+    deserialized.update("world");
+    assertEquals(cacheKey, deserialized);
+  }
+
   private static <T> T serialize(T object) throws Exception {
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
       new ObjectOutputStream(baos).writeObject(object);
@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.BeanSerializer;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.CompressingSerializer;
+import org.apache.ibatis.cache.serializer.JavaSerializer;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.junit.jupiter.api.Test;
+
+class SerializedCacheTest {
+
+  @Test
+  void shouldReturnCopyWithJavaSerializer() {
+    Cache cache = new SerializedCache(new PerpetualCache("default"));
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "Something...", Section.NEWS);
+    cache.putObject(0, author);
+    Object copy = cache.getObject(0);
+    assertEquals(author, copy);
+    assertNotSame(author, copy);
+  }
+
+  @Test
+  void shouldRejectNonSerializableValuesWithJavaSerializer() {
+    Cache cache = new SerializedCache(new PerpetualCache("default"));
+    assertThrows(CacheException.class, () -> cache.putObject(0, new Object()));
+  }
+
+  @Test
+  void shouldCopyBeansWithBeanSerializer() {
+    Cache cache = new SerializedCache(new PerpetualCache("default"), new BeanSerializer());
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "Something...", Section.NEWS);
+    List<Object> row = new ArrayList<>();
+    row.add(author);
+    row.add(author);
+    row.add(new BigDecimal("-12.345"));
+    row.add(new Timestamp(1234567890L));
+    row.add(Long.MIN_VALUE);
+    row.add(3.5d);
+    row.add(null);
+    cache.putObject(0, row);
+    @SuppressWarnings("unchecked")
+    List<Object> copy = (List<Object>) cache.getObject(0);
+    assertEquals(row, copy);
+    assertNotSame(author, copy.get(0));
+    assertSame(copy.get(0), copy.get(1));
+  }
+
+  @Test
+  void shouldKeepCyclesWithBeanSerializer() {
+    CacheSerializer serializer = new BeanSerializer();
+    Node parent = new Node();
+    parent.setName("parent");
+    Node child = new Node();
+    child.setName("child");
+    child.setParent(parent);
+    parent.getChildren().add(child);
+    Node copy = (Node) serializer.deserialize(serializer.serialize(parent));
+    assertEquals("parent", copy.getName());
+    assertEquals("child", copy.getChildren().get(0).getName());
+    assertSame(copy, copy.getChildren().get(0).getParent());
+  }
+
+  @Test
+  void shouldFallBackToJavaSerializationWithBeanSerializer() {
+    CacheSerializer serializer = new BeanSerializer();
+    List<String> list = Arrays.asList("a", "b");
+    assertEquals(list, serializer.deserialize(serializer.serialize(list)));
+    assertThrows(CacheException.class, () -> serializer.serialize(new Object()));
+  }
+
+  @Test
+  void shouldCopyCollectionSubclassesWithBeanSerializer() {
+    CacheSerializer serializer = new BeanSerializer();
+    Tags tags = new Tags();
+    tags.setLabel("colors");
+    tags.add("red");
+    tags.add("blue");
+    Tags copy = (Tags) serializer.deserialize(serializer.serialize(tags));
+    assertEquals(Arrays.asList("red", "blue"), copy);
+    assertEquals("colors", copy.getLabel());
+    TagSet tagSet = new TagSet();
+    tagSet.add("green");
+    assertEquals(tagSet, serializer.deserialize(serializer.serialize(tagSet)));
+  }
+
+  @Test
+  void shouldCompressLargeValues() {
+    CacheSerializer serializer = new CompressingSerializer(new JavaSerializer(), 128);
+    Map<String, String> map = new LinkedHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, "value");
+    }
+    byte[] bytes = serializer.serialize(map);
+    assertTrue(bytes.length < new JavaSerializer().serialize(map).length);
+    assertEquals(map, serializer.deserialize(bytes));
+    assertEquals("small", serializer.deserialize(serializer.serialize("small")));
+  }
+
+  @Test
+  void shouldSetSerializerFromCacheProperties() {
+    Properties props = new Properties();
+    props.setProperty("serializer", BeanSerializer.class.getName());
+    props.setProperty("compressionThreshold", "512");
+    Cache cache = new CacheBuilder("default").readWrite(true).properties(props).build();
+    Object serialized = SystemMetaObject.forObject(cache).getValue("delegate.delegate");
+    assertTrue(serialized instanceof SerializedCache);
+    assertTrue(((SerializedCache) serialized).getSerializer() instanceof CompressingSerializer);
+    cache.putObject(0, "value");
+    assertEquals("value", cache.getObject(0));
+  }
+
+  @Test
+  void shouldRejectUnknownSerializer() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    assertThrows(CacheException.class, () -> cache.setSerializer("org.apache.ibatis.NoSuchSerializer"));
+  }
+
+  public static class Node {
+    private String name;
+    private Node parent;
+    private List<Node> children = new ArrayList<>();
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Node getParent() {
+      return parent;
+    }
+
+    public void setParent(Node parent) {
+      this.parent = parent;
+    }
+
+    public List<Node> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<Node> children) {
+      this.children = children;
+    }
+  }
+
+  public static class Tags extends ArrayList<String> {
+    private static final long serialVersionUID = 1L;
+
+    private String label;
+
+    public String getLabel() {
+      return label;
+    }
+
+    public void setLabel(String label) {
+      this.label = label;
+    }
+  }
+
+  public static class TagSet extends HashSet<String> {
+    private static final long serialVersionUID = 1L;
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.CacheStatistics;
+import org.apache.ibatis.cache.decorators.StatisticsCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class StatisticsCacheTest {
+
+  @Test
+  void shouldRecordHitsAndMissesPerStatement() {
+    StatisticsCache cache = new StatisticsCache(new PerpetualCache("default"));
+    CacheKey first = key("selectBlog", 1);
+    CacheKey second = key("selectPost", 1);
+    cache.putObject(first, "blog");
+    assertEquals("blog", cache.getObject(first));
+    assertNull(cache.getObject(second));
+    assertNull(cache.getObject("custom key"));
+
+    CacheStatistics total = cache.getStatistics();
+    assertEquals(1, total.getHitCount());
+    assertEquals(2, total.getMissCount());
+    assertEquals(1, total.getPutCount());
+    assertEquals(3, total.getGetTime().getCount());
+    assertEquals(1.0, cache.getStatementStatistics("selectBlog").getHitRatio());
+    assertEquals(0.0, cache.getStatementStatistics("selectPost").getHitRatio());
+    assertEquals(2, cache.getStatementStatistics().size());
+  }
+
+  @Test
+  void shouldCountEntriesBytesAndEvictions() {
+    Properties props = new Properties();
+    props.setProperty("statistics", "true");
+    Cache cache = new CacheBuilder("default").size(2).readWrite(true).properties(props).build();
+    assertTrue(cache instanceof StatisticsCache);
+    for (int i = 0; i < 3; i++) {
+      cache.putObject(key("selectBlog", i), "blog" + i);
+    }
+    cache.putObject(key("selectPost", 0), "post");
+
+    StatisticsCache statisticsCache = (StatisticsCache) cache;
+    CacheStatistics total = statisticsCache.getStatistics();
+    assertEquals(2, total.getEntryCount());
+    assertEquals(2, total.getEvictionCount());
+    assertTrue(total.getEstimatedBytes() > 0);
+    CacheStatistics blog = statisticsCache.getStatementStatistics("selectBlog");
+    assertEquals(1, blog.getEntryCount());
+    assertEquals(2, blog.getEvictionCount());
+    assertEquals(3, blog.getPutCount());
+
+    cache.clear();
+    assertEquals(0, total.getEntryCount());
+    assertEquals(0, total.getEstimatedBytes());
+    assertEquals(0, blog.getEntryCount());
+  }
+
+  private static CacheKey key(String statementId, int parameter) {
+    CacheKey key = new CacheKey();
+    key.update(statementId);
+    key.update(parameter);
+    return key;
+  }
+
+}
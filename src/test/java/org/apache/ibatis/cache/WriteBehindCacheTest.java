@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.decorators.WriteBehindCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindCacheTest {
+
+  @Test
+  void shouldFlushTransactionalEntriesInOneBatch() {
+    CountingCache counting = new CountingCache();
+    TransactionalCache cache = new TransactionalCache(new SynchronizedCache(counting));
+    assertNull(cache.getObject("missed"));
+    cache.putObject("a", 1);
+    cache.putObject("b", 2);
+    cache.commit();
+    assertEquals(1, counting.putAllCalls);
+    assertEquals(0, counting.putObjectCalls);
+    assertEquals(1, counting.getObject("a"));
+    assertEquals(2, counting.getObject("b"));
+    assertEquals(3, counting.getSize());
+  }
+
+  @Test
+  void shouldWriteInBackground() {
+    WriteBehindCache cache = new WriteBehindCache(new PerpetualCache("default"));
+    Map<Object, Object> entries = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      entries.put(i, i);
+    }
+    cache.putAll(entries);
+    cache.putObject("key", "value");
+    cache.flush();
+    assertEquals(101, cache.getSize());
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  @Test
+  void shouldDropQueuedWritesOnClear() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    WriteBehindCache blocker = new WriteBehindCache(new PerpetualCache("blocker") {
+      @Override
+      public void putAll(Map<Object, Object> entries) {
+        writing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    WriteBehindCache cache = new WriteBehindCache(new PerpetualCache("default"));
+    blocker.putObject("key", "value");
+    writing.await();
+    cache.putObject("stale", "value");
+    cache.clear();
+    release.countDown();
+    cache.flush();
+    assertNull(cache.getObject("stale"));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldBuildWriteBehindCacheFromProperty() {
+    Properties props = new Properties();
+    props.setProperty("writeBehind", "true");
+    Cache cache = new CacheBuilder("default").properties(props).build();
+    assertTrue(cache instanceof WriteBehindCache);
+    cache.putObject("key", "value");
+    ((WriteBehindCache) cache).flush();
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  private static class CountingCache extends PerpetualCache {
+    private int putObjectCalls;
+    private int putAllCalls;
+
+    CountingCache() {
+      super("counting");
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      putObjectCalls++;
+      super.putObject(key, value);
+    }
+
+    @Override
+    public void putAll(Map<Object, Object> entries) {
+      putAllCalls++;
+      super.putAll(entries);
+    }
+  }
+
+}
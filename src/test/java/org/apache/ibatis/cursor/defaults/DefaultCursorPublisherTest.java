@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultCursorPublisherTest {
+
+  @Mock
+  private Cursor<String> cursor;
+
+  @Test
+  void shouldCancelWhenSubscriberThrowsFromOnNext() throws Exception {
+    when(cursor.iterator()).thenReturn(Arrays.asList("a", "b", "c").iterator());
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(String item) {
+        super.onNext(item);
+        throw new IllegalStateException("cannot handle " + item);
+      }
+    };
+    new DefaultCursorPublisher<>(() -> cursor, Runnable::run, 10).subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+    subscriber.subscription.request(1);
+
+    assertEquals(Arrays.asList("a"), subscriber.items);
+    assertNull(subscriber.error);
+    assertFalse(subscriber.completed);
+    verify(cursor).close();
+  }
+
+  @Test
+  void shouldReportRejectedFirstTaskThroughOnError() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new DefaultCursorPublisher<>(() -> cursor, task -> {
+      throw new RejectedExecutionException("no threads left");
+    }, 10).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    subscriber.subscription.request(1);
+
+    assertTrue(subscriber.error instanceof RejectedExecutionException);
+    assertEquals(1, subscriber.errors);
+    assertTrue(subscriber.items.isEmpty());
+    verify(cursor, never()).iterator();
+  }
+
+  @Test
+  void shouldReportRejectedFollowingTaskThroughOnErrorAndCloseCursor() throws Exception {
+    when(cursor.iterator()).thenReturn(Arrays.asList("a", "b", "c").iterator());
+    AtomicInteger tasks = new AtomicInteger();
+    Executor executor = task -> {
+      if (tasks.incrementAndGet() > 1) {
+        throw new RejectedExecutionException("no threads left");
+      }
+      task.run();
+    };
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new DefaultCursorPublisher<>(() -> cursor, executor, 1).subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+
+    assertEquals(Arrays.asList("a"), subscriber.items);
+    assertTrue(subscriber.error instanceof RejectedExecutionException);
+    verify(cursor).close();
+  }
+
+  @Test
+  void shouldCloseCursorWhenCancelIsRejected() throws Exception {
+    when(cursor.iterator()).thenReturn(Arrays.asList("a", "b", "c").iterator());
+    AtomicInteger tasks = new AtomicInteger();
+    Executor executor = task -> {
+      if (tasks.incrementAndGet() > 1) {
+        throw new RejectedExecutionException("no threads left");
+      }
+      task.run();
+    };
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new DefaultCursorPublisher<>(() -> cursor, executor, 10).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+
+    assertEquals(Arrays.asList("a"), subscriber.items);
+    assertNull(subscriber.error);
+    verify(cursor).close();
+  }
+
+  private static class RecordingSubscriber implements CursorFlow.Subscriber<String> {
+    private final List<String> items = new ArrayList<>();
+    private CursorFlow.Subscription subscription;
+    private Throwable error;
+    private int errors;
+    private boolean completed;
+
+    @Override
+    public void onSubscribe(CursorFlow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(String item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      errors++;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
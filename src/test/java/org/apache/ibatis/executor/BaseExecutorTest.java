@@ -16,7 +16,9 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -33,8 +35,10 @@ import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -130,6 +134,52 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldNotUseLocalCacheWithStatementScope() throws Exception {
+
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      List<Author> authors = executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, authors.size());
+      assertNotSame(authors, executor.query(selectStatement, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER));
+      BoundSql boundSql = selectStatement.getBoundSql(null);
+      assertFalse(executor.isCached(selectStatement,
+          executor.createCacheKey(selectStatement, null, RowBounds.DEFAULT, boundSql)));
+    } finally {
+      config.setLocalCacheScope(LocalCacheScope.SESSION);
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldClearLocalCacheAfterNestedSelectsOfNestedResultMapsWithStatementScope() throws Exception {
+
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    try {
+      MappedStatement selectBlog = ExecutorTestHelper.prepareComplexSelectBlogMappedStatement(config);
+      MappedStatement selectPosts = ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config);
+      MappedStatement selectPostsWithBlog = ExecutorTestHelper.prepareSelectPostsWithNestedBlogMappedStatement(config);
+      config.addMappedStatement(selectBlog);
+      config.addMappedStatement(selectPosts);
+      assertFalse(selectPostsWithBlog.hasNestedQueries());
+      List<Post> posts = executor.query(selectPostsWithBlog, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, posts.size());
+      List<Post> blogPosts = posts.get(0).getBlog().getPosts();
+      assertEquals(2, blogPosts.size());
+      BoundSql boundSql = selectPosts.getBoundSql(1);
+      assertFalse(executor.isCached(selectPosts, executor.createCacheKey(selectPosts, 1, RowBounds.DEFAULT, boundSql)));
+      assertNotSame(blogPosts, executor.query(selectPosts, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER));
+    } finally {
+      config.setLocalCacheScope(LocalCacheScope.SESSION);
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   void shouldInsertNewAuthorWithAutoKey() throws Exception {
 
@@ -344,6 +394,9 @@ class BaseExecutorTest extends BaseDataTest {
       assertTrue(posts.get(1) instanceof Proxy);
       assertNotNull(posts.get(1).getBlog());
       assertEquals(1, posts.get(1).getBlog().getId());
+      assertTrue(selectPosts.getResultStatistics().getLastNestedResultObjects() > 0);
+      assertEquals(selectPosts.getResultStatistics().getLastNestedResultObjects(),
+          selectPosts.getResultStatistics().getMaxNestedResultObjects());
       executor.rollback(true);
     } finally {
       executor.rollback(true);
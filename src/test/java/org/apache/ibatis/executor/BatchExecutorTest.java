@@ -15,15 +15,158 @@
  */
 package org.apache.ibatis.executor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 class BatchExecutorTest extends BaseExecutorTest {
 
+  private static DataSource ds;
+
+  @BeforeAll
+  static void setupDataSource() throws Exception {
+    ds = createUnpooledDataSource(BLOG_PROPERTIES);
+  }
+
   @Test
   void dummy() {
   }
 
+  @Test
+  void shouldFlushGroupedStatementsWhenFull() throws Exception {
+    config.setBatchFlushSize(3);
+    config.setBatchGroupBySql(true);
+    config.setRetainBatchParameters(false);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement updateStatement = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      executor.update(insertStatement, new Author(200, "a", "******", "a@apache.org", null, Section.NEWS));
+      executor.update(updateStatement, new Author(101, "jim", "******", "jim@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(201, "b", "******", "b@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(202, "c", "******", "c@apache.org", null, Section.NEWS));
+      List<BatchResult> results = executor.flushStatements();
+      // the first three were executed when the batch was full, the inserts together
+      assertEquals(3, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(1, results.get(1).getUpdateCounts().length);
+      assertEquals(1, results.get(2).getUpdateCounts().length);
+      assertTrue(results.get(0).getParameterObjects().isEmpty());
+      List<Author> authors = executor.query(selectStatement, 202, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, authors.size());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldNotRetainParametersOfFlushedBatches() throws Exception {
+    config.setBatchFlushSize(2);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      Author last = new Author(202, "c", "******", "c@apache.org", null, Section.NEWS);
+      executor.update(insertStatement, new Author(200, "a", "******", "a@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(201, "b", "******", "b@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, last);
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertTrue(results.get(0).getParameterObjects().isEmpty());
+      assertEquals(1, results.get(1).getUpdateCounts().length);
+      assertEquals(Collections.singletonList(last), results.get(1).getParameterObjects());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldKeepResultsOfFlushedBatches() throws Exception {
+    config.setBatchFlushSize(2);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      for (int id = 200; id < 205; id++) {
+        executor.update(insertStatement, newAuthor(id));
+      }
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(2, results.get(1).getUpdateCounts().length);
+      assertEquals(1, results.get(2).getUpdateCounts().length);
+      for (int id = 200; id < 205; id++) {
+        assertEquals(1, executor.query(selectStatement, id, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      }
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldReportFlushedBatchesOfFailingBatch() throws Exception {
+    config.setBatchFlushSize(2);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      executor.update(insertStatement, newAuthor(200));
+      executor.update(insertStatement, newAuthor(201));
+      executor.update(insertStatement, newAuthor(202));
+      // author 101 already exists, so the second batch fails when it is full
+      BatchExecutorException e = assertThrows(BatchExecutorException.class,
+          () -> executor.update(insertStatement, newAuthor(101)));
+      assertEquals("insertAuthor", e.getFailingStatementId());
+      assertTrue(e.getMessage().contains("(batch index #2)"), e.getMessage());
+      assertEquals(1, e.getSuccessfulBatchResults().size());
+      assertEquals(2, e.getSuccessfulBatchResults().get(0).getUpdateCounts().length);
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldDiscardFlushedBatchesOnRollback() throws Exception {
+    config.setBatchFlushSize(2);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      executor.update(insertStatement, newAuthor(200));
+      executor.update(insertStatement, newAuthor(201));
+      executor.update(insertStatement, newAuthor(202));
+      executor.rollback(true);
+      assertTrue(executor.flushStatements().isEmpty());
+      assertTrue(executor.query(selectStatement, 200, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).isEmpty());
+      assertTrue(executor.query(selectStatement, 202, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).isEmpty());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  private static Author newAuthor(int id) {
+    return new Author(id, "author" + id, "******", "author" + id + "@apache.org", null, Section.NEWS);
+  }
+
   @Override
   protected Executor createExecutor(Transaction transaction) {
     return new BatchExecutor(config, transaction);
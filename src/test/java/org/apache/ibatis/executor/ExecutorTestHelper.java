@@ -624,6 +624,49 @@ class ExecutorTestHelper {
   }
 
 
+  static MappedStatement prepareSelectPostsWithNestedBlogMappedStatement(final Configuration config) {
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    final SqlSource sqlSource = new StaticSqlSource(config, "SELECT p.id, p.blog_id FROM post p WHERE p.blog_id = ? ORDER BY p.id");
+    final ParameterMap parameterMap = new ParameterMap.Builder(config, "defaultParameterMap", int.class,
+        new ArrayList<ParameterMapping>() {
+          {
+            add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(int.class)).build());
+          }
+        }).build();
+    final ResultMap blogResultMap = new ResultMap.Builder(config, "blogWithPostsResultMap", Blog.class, new ArrayList<ResultMapping>() {
+      {
+        add(new ResultMapping.Builder(config, "id", "blog_id", registry.getTypeHandler(int.class))
+            .flags(new ArrayList<ResultFlag>() {
+              {
+                add(ResultFlag.ID);
+              }
+            }).build());
+        add(new ResultMapping.Builder(config, "posts", "blog_id", registry.getTypeHandler(int.class)).javaType(List.class)
+            .nestedQueryId("selectPostsForBlog").lazy(false).build());
+      }
+    }).build();
+    config.addResultMap(blogResultMap);
+    final ResultMap postResultMap = new ResultMap.Builder(config, "postWithNestedBlogResultMap", Post.class, new ArrayList<ResultMapping>() {
+      {
+        add(new ResultMapping.Builder(config, "id", "id", registry.getTypeHandler(int.class))
+            .flags(new ArrayList<ResultFlag>() {
+              {
+                add(ResultFlag.ID);
+              }
+            }).build());
+        add(new ResultMapping.Builder(config, "blog").nestedResultMapId(blogResultMap.getId()).build());
+      }
+    }).build();
+
+    return new MappedStatement.Builder(config, "selectPostsWithNestedBlog", sqlSource, SqlCommandType.SELECT)
+        .parameterMap(parameterMap)
+        .resultMaps(new ArrayList<ResultMap>() {
+          {
+            add(postResultMap);
+          }
+        }).build();
+  }
+
   static MappedStatement prepareInsertAuthorMappedStatementWithBeforeAutoKey(final Configuration config) {
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
     final ResultMap rm = new ResultMap.Builder(config, "keyResultMap", Integer.class, new ArrayList<>())
@@ -0,0 +1,130 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RowKeyPlanTest {
+
+  @Mock
+  private ResultSet rs;
+
+  @Test
+  void shouldReadIdColumnsByIndex() throws Exception {
+    when(rs.getInt(1)).thenReturn(101);
+    when(rs.getString(2)).thenReturn("jim");
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Arrays.asList(
+        new RowKeyPlan.Column("ID", 1, new IntegerTypeHandler()),
+        new RowKeyPlan.Column("USERNAME", 2, new StringTypeHandler())), false);
+
+    CacheKey key = plan.createKey(rs);
+
+    assertEquals(new CacheKey(new Object[] { "authorMap", "ID", 101, "USERNAME", "jim" }), key);
+  }
+
+  @Test
+  void shouldKeepNullsOfMappedColumnsForEmptyRowInstances() throws Exception {
+    when(rs.getInt(1)).thenReturn(0);
+    when(rs.wasNull()).thenReturn(true);
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Collections.singletonList(
+        new RowKeyPlan.Column("ID", 1, new IntegerTypeHandler())), true);
+
+    CacheKey key = plan.createKey(rs);
+
+    assertEquals(new CacheKey(new Object[] { "authorMap", "ID", null }), key);
+  }
+
+  @Test
+  void shouldSkipNullsOfMappedColumnsWithoutEmptyRowInstances() throws Exception {
+    when(rs.getInt(1)).thenReturn(0);
+    when(rs.wasNull()).thenReturn(true);
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Collections.singletonList(
+        new RowKeyPlan.Column("ID", 1, new IntegerTypeHandler())), false);
+
+    assertSame(CacheKey.NULL_CACHE_KEY, plan.createKey(rs));
+  }
+
+  @Test
+  void shouldSkipNullsOfUnmappedAndMapColumnsForEmptyRowInstances() throws Exception {
+    when(rs.getString(1)).thenReturn(null);
+    when(rs.getString(2)).thenReturn("jim");
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Arrays.asList(
+        new RowKeyPlan.Column("ID", 1, null),
+        new RowKeyPlan.Column("USERNAME", 2, null)), true);
+
+    CacheKey key = plan.createKey(rs);
+
+    assertEquals(new CacheKey(new Object[] { "authorMap", "USERNAME", "jim" }), key);
+  }
+
+  @Test
+  void shouldReturnNullCacheKeyWhenNoIdColumnHasValue() throws Exception {
+    when(rs.getString(1)).thenReturn(null);
+    when(rs.getString(2)).thenReturn(null);
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Arrays.asList(
+        new RowKeyPlan.Column("ID", 1, null),
+        new RowKeyPlan.Column("USERNAME", 2, null)), true);
+
+    assertSame(CacheKey.NULL_CACHE_KEY, plan.createKey(rs));
+  }
+
+  @Test
+  void shouldReturnNullCacheKeyWithoutIdColumns() throws Exception {
+    RowKeyPlan plan = new RowKeyPlan("authorMap", Collections.emptyList(), false);
+
+    assertSame(CacheKey.NULL_CACHE_KEY, plan.createKey(rs));
+  }
+
+  @Test
+  void shouldCombineKeysLikeClonedKeys() throws Exception {
+    CacheKey rowKey = new CacheKey(new Object[] { "postMap", "ID", 1 });
+    CacheKey parentRowKey = new CacheKey(new Object[] { "blogMap", "ID", 1, "TITLE", "Jim Business" });
+
+    CacheKey clonedKey = rowKey.clone();
+    clonedKey.update(parentRowKey);
+    CacheKey combinedKey = RowKeyPlan.combine(rowKey, parentRowKey);
+
+    assertEquals(clonedKey, combinedKey);
+    assertEquals(combinedKey, clonedKey);
+    assertEquals(clonedKey.hashCode(), combinedKey.hashCode());
+    assertEquals(clonedKey.toString(), combinedKey.toString());
+    assertEquals(3, rowKey.getUpdateCount());
+  }
+
+  @Test
+  void shouldNotCombineNullCacheKeys() {
+    CacheKey rowKey = new CacheKey(new Object[] { "postMap", "ID", 1 });
+
+    assertSame(CacheKey.NULL_CACHE_KEY, RowKeyPlan.combine(rowKey, CacheKey.NULL_CACHE_KEY));
+    assertSame(CacheKey.NULL_CACHE_KEY, RowKeyPlan.combine(CacheKey.NULL_CACHE_KEY, rowKey));
+  }
+
+}
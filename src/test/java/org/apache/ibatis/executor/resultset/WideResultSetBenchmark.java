@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Times the mapping of a wide result set on an in-memory HSQLDB or Derby database.
+ * <p>
+ * Run it from the test classpath, for example with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.apache.ibatis.executor.resultset.WideResultSetBenchmark -Dexec.args="hsqldb 120 2000"}.
+ * The arguments are the database ({@code hsqldb} or {@code derby}), the number of columns and the number of rows.
+ * Besides the mapped and auto-mapped selects it times the raw JDBC reads by column name and by column index, which
+ * is the per cell lookup the result set handler no longer pays.
+ */
+public class WideResultSetBenchmark {
+
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int MEASURED_ROUNDS = 30;
+
+  public static void main(String[] args) throws Exception {
+    String database = args.length > 0 ? args[0] : "hsqldb";
+    int columns = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+    int rows = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+    UnpooledDataSource dataSource = createDataSource(database);
+    createTable(dataSource, columns, rows);
+
+    Configuration configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.setLogImpl(NoLoggingImpl.class);
+    configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    configuration.addMappedStatement(createSelect(configuration, "selectMapped", columns, true));
+    configuration.addMappedStatement(createSelect(configuration, "selectAutoMapped", columns, false));
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    System.out.printf("%s, %d columns x %d rows, %d measured rounds%n", database, columns, rows, MEASURED_ROUNDS);
+    try (Connection connection = dataSource.getConnection()) {
+      report("jdbc getString(name)", time(() -> readAll(connection, columns, true)), columns, rows);
+      report("jdbc getString(index)", time(() -> readAll(connection, columns, false)), columns, rows);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      report("resultMap", time(() -> check(sqlSession.selectList("selectMapped"), rows)), columns, rows);
+      report("auto-mapping", time(() -> check(sqlSession.selectList("selectAutoMapped"), rows)), columns, rows);
+    }
+  }
+
+  private static UnpooledDataSource createDataSource(String database) {
+    if ("derby".equalsIgnoreCase(database)) {
+      return new UnpooledDataSource("org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:memory:wide;create=true", "", "");
+    }
+    return new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:wide", "sa", "");
+  }
+
+  private static void createTable(UnpooledDataSource dataSource, int columns, int rows) throws SQLException {
+    StringBuilder ddl = new StringBuilder("CREATE TABLE wide_table (");
+    StringBuilder insert = new StringBuilder("INSERT INTO wide_table VALUES (");
+    for (int i = 1; i <= columns; i++) {
+      ddl.append(i > 1 ? ", " : "").append("col_").append(i).append(i % 2 == 0 ? " INTEGER" : " VARCHAR(20)");
+      insert.append(i > 1 ? ", ?" : "?");
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(ddl.append(")").toString());
+      }
+      try (PreparedStatement statement = connection.prepareStatement(insert.append(")").toString())) {
+        for (int row = 0; row < rows; row++) {
+          for (int i = 1; i <= columns; i++) {
+            if (i % 2 == 0) {
+              statement.setInt(i, row * i);
+            } else {
+              statement.setString(i, "r" + row + "c" + i);
+            }
+          }
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+      connection.commit();
+    }
+  }
+
+  private static MappedStatement createSelect(Configuration configuration, String id, int columns, boolean mapped) {
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    List<ResultMapping> resultMappings = new ArrayList<>();
+    if (mapped) {
+      for (int i = 1; i <= columns; i++) {
+        Class<?> javaType = i % 2 == 0 ? Integer.class : String.class;
+        resultMappings.add(new ResultMapping.Builder(configuration, "col_" + i, "COL_" + i, registry.getTypeHandler(javaType))
+            .javaType(javaType).build());
+      }
+    }
+    ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", HashMap.class, resultMappings).build();
+    List<ResultMap> resultMaps = new ArrayList<>();
+    resultMaps.add(resultMap);
+    return new MappedStatement.Builder(configuration, id,
+        new StaticSqlSource(configuration, "SELECT * FROM wide_table"), SqlCommandType.SELECT)
+        .resultMaps(resultMaps).build();
+  }
+
+  private static void readAll(Connection connection, int columns, boolean byName) throws SQLException {
+    String[] names = new String[columns];
+    for (int i = 0; i < columns; i++) {
+      names[i] = "COL_" + (i + 1);
+    }
+    try (Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("SELECT * FROM wide_table")) {
+      while (rs.next()) {
+        for (int i = 0; i < columns; i++) {
+          if (byName) {
+            rs.getString(names[i]);
+          } else {
+            rs.getString(i + 1);
+          }
+        }
+      }
+    }
+  }
+
+  private static void check(List<Map<String, Object>> results, int rows) {
+    if (results.size() != rows) {
+      throw new IllegalStateException("Expected " + rows + " rows but got " + results.size());
+    }
+  }
+
+  private static double time(Round round) throws Exception {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      round.run();
+    }
+    return (System.nanoTime() - start) / (double) MEASURED_ROUNDS;
+  }
+
+  private static void report(String name, double nanosPerRound, int columns, int rows) {
+    System.out.printf("  %-22s %9.2f ms/select %7.1f ns/cell%n", name, nanosPerRound / 1_000_000,
+        nanosPerRound / ((double) columns * rows));
+  }
+
+  private interface Round {
+    void run() throws Exception;
+  }
+
+}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.executor.statement;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -145,4 +147,66 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void adaptFetchSizeToRecordedResults() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+        verify(statement, never()).setFetchSize(anyInt()); // nothing recorded yet
+
+        mappedStatement.getResultStatistics().record(500, 8);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(501); // all results in one round trip
+
+        mappedStatement.getResultStatistics().record(5000, 100);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(163); // limited by the width of the rows
+    }
+
+    @Test
+    void adaptFetchSizeToFewestRecentResults() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+        mappedStatement.getResultStatistics().record(50, 8);
+        mappedStatement.getResultStatistics().record(1_000_000, 8);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(51); // one large scan does not raise it for the small calls
+
+        for (int i = 0; i < 8; i++) {
+            mappedStatement.getResultStatistics().record(1_000_000, 8);
+        }
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(1000); // capped even when every call is large
+        assertEquals(1024, mappedStatement.getResultStatistics().getInitialCapacity());
+    }
+
+    @Test
+    void preferDefaultFetchSizeToAdaptiveFetchSize() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        doReturn(100).when(configuration).getDefaultFetchSize();
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+        mappedStatement.getResultStatistics().record(500, 8);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(100);
+    }
+
+    @Test
+    void preferMappedStatementFetchSizeToAdaptiveFetchSize() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        MappedStatement mappedStatement = mappedStatementBuilder.fetchSize(10).build();
+        mappedStatement.getResultStatistics().record(500, 8);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(10);
+    }
+
 }
@@ -24,11 +24,17 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PoolMetrics;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
+import org.hsqldb.jdbc.JDBCPreparedStatement;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -75,6 +81,252 @@ class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnectionsInLockFreeMode() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolLockFreeEnabled(true);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolPingConnectionsNotUsedFor(1);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(4, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+    assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldReuseLastReturnedConnectionInLockFreeMode() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolLockFreeEnabled(true);
+    try {
+      Connection c1 = ds.getConnection();
+      Connection c2 = ds.getConnection();
+      Connection real2 = PooledDataSource.unwrapConnection(c2);
+      c1.close();
+      c2.close();
+      Connection c3 = ds.getConnection();
+      assertSame(real2, PooledDataSource.unwrapConnection(c3));
+      c3.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotExceedMaximumActiveConnectionsInLockFreeMode() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolLockFreeEnabled(true);
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(2);
+    ds.setPoolTimeToWait(100);
+    AtomicInteger inUse = new AtomicInteger();
+    AtomicInteger maxInUse = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 100; j++) {
+            try (Connection c = ds.getConnection()) {
+              maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+              c.getAutoCommit();
+              inUse.decrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertTrue(maxInUse.get() <= 4);
+      assertEquals(1600, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 2);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotOpenMoreThanMaximumActiveConnectionsInLockFreeMode() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolLockFreeEnabled(true);
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    ds.setPoolTimeToWait(100);
+    AtomicInteger maxActive = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 200; j++) {
+            try (Connection c = ds.getConnection()) {
+              // a returning thread hands its connection back while others check out
+              maxActive.accumulateAndGet(ds.getPoolState().getActiveConnectionCount(), Math::max);
+              c.getAutoCommit();
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertTrue(maxActive.get() <= 4, "active connections: " + maxActive.get());
+      // every returned connection is kept idle, so only the first ones are ever opened
+      assertTrue(ds.getPoolMetrics().getCreatedConnectionCount() <= 4,
+          "opened connections: " + ds.getPoolMetrics().getCreatedConnectionCount());
+      assertEquals(0, ds.getPoolMetrics().getClosedConnectionCount());
+      assertEquals(3200, ds.getPoolState().getRequestCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReuseCachedStatementsAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumCachedStatements(2);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      runScript(ds, JPETSTORE_DATA);
+      PreparedStatement first;
+      JDBCPreparedStatement firstStatement;
+      try (Connection c = ds.getConnection()) {
+        first = c.prepareStatement("SELECT * FROM PRODUCT WHERE PRODUCTID = ?");
+        firstStatement = first.unwrap(JDBCPreparedStatement.class);
+        first.setString(1, "FI-SW-01");
+        ResultSet firstResults = first.executeQuery();
+        assertTrue(firstResults.next());
+        first.close();
+        assertTrue(first.isClosed());
+        // the open result set is closed when the statement goes back to the cache
+        assertTrue(firstResults.isClosed());
+      }
+      try (Connection c = ds.getConnection();
+           PreparedStatement second = c.prepareStatement("SELECT * FROM PRODUCT WHERE PRODUCTID = ?")) {
+        assertSame(firstStatement, second.unwrap(JDBCPreparedStatement.class));
+        assertThrows(SQLException.class, first::executeQuery);
+        second.setString(1, "FI-SW-01");
+        try (ResultSet rs = second.executeQuery()) {
+          assertTrue(rs.next());
+        }
+      }
+      PoolMetrics metrics = ds.getPoolMetrics();
+      assertEquals(1, metrics.getStatementCacheHitCount());
+      assertEquals(1, metrics.getStatementCacheMissCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldKeepMinimumIdleConnectionsWarm() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaintenanceInterval(20);
+    ds.setPoolMinimumIdleConnections(3);
+    try {
+      ds.getConnection().close();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getIdleConnectionCount() < 3 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      // the returned connection may have been counted as active while the pool was topped up
+      assertTrue(ds.getPoolState().getIdleConnectionCount() >= 3);
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.setPoolMaintenanceInterval(0);
+    }
+  }
+
+  @Test
+  void shouldEvictIdleConnectionsPastMaximumLifetime() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolLockFreeEnabled(true);
+    ds.setPoolMaintenanceInterval(20);
+    ds.setPoolMaximumLifetime(100);
+    try {
+      ds.getConnection().close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      awaitIdleConnectionCount(ds, 0);
+    } finally {
+      ds.setPoolMaintenanceInterval(0);
+    }
+  }
+
+  @Test
+  void shouldNotPingOnCheckoutWhenMaintenanceIsEnabled() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery("SELECT * FROM NON_EXISTENT_TABLE");
+    ds.setPoolPingConnectionsNotUsedFor(0);
+    ds.setPoolMaintenanceInterval(60000);
+    try {
+      for (int i = 0; i < 3; i++) {
+        Connection c = ds.getConnection();
+        Thread.sleep(1);
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.setPoolMaintenanceInterval(0);
+    }
+  }
+
+  @Test
+  void shouldRecordPoolMetrics() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumIdleConnections(1);
+    ds.setPoolTimeToWait(50);
+    ds.setPoolMaximumCheckoutTime(100);
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+    try {
+      ds.getConnection().close();
+      Connection c = ds.getConnection();
+      // waits until the first connection is overdue and claims it
+      ds.getConnection().close();
+      c.close();
+      PoolMetrics metrics = ds.getPoolMetrics();
+      assertEquals(3, metrics.getCheckoutWaitTime().getCount());
+      assertEquals(3, metrics.getCheckoutHoldTime().getCount());
+      assertTrue(metrics.getPingTime().getCount() > 0);
+      assertTrue(metrics.getWaitTimeoutCount() > 0);
+      assertEquals(1, metrics.getCreatedConnectionCount());
+      assertEquals(1, metrics.getClaimedOverdueConnectionCount());
+      assertEquals(0, metrics.getActiveConnectionCount());
+      assertEquals(1, metrics.getIdleConnectionCount());
+      assertNotNull(metrics.toString());
+    } finally {
+      ds.forceCloseAll();
+    }
+    assertEquals(1, ds.getPoolMetrics().getClosedConnectionCount());
+  }
+
   @Test
   void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -136,6 +388,14 @@ class PooledDataSourceTest extends BaseDataTest {
     con.close();
   }
 
+  private void awaitIdleConnectionCount(PooledDataSource ds, int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (ds.getPoolState().getIdleConnectionCount() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, ds.getPoolState().getIdleConnectionCount());
+  }
+
   private void exexuteQuery(Connection con) throws SQLException {
     try (PreparedStatement st = con.prepareStatement("select 1");
          ResultSet rs = st.executeQuery()) {
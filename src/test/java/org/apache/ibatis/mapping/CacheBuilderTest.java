@@ -18,7 +18,11 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -43,6 +47,17 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testTinyLfuCacheIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").implementation(TinyLfuCache.class).addDecorator(LruCache.class)
+      .size(10).readWrite(true).build();
+
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    Cache serialized = unwrap(cache);
+    Assertions.assertThat(serialized).isInstanceOf(SerializedCache.class);
+    Assertions.assertThat((Cache) unwrap(serialized)).isInstanceOf(TinyLfuCache.class);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.ibatis.reflection.LambdaReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.junit.jupiter.api.Test;
+
+class LambdaMethodInvokerTest {
+
+  @Test
+  void shouldGenerateInvokersForPublicAccessors() throws Exception {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Bean.class);
+    assertTrue(reflector.getSetInvoker("id") instanceof LambdaMethodInvoker);
+    assertTrue(reflector.getGetInvoker("name") instanceof LambdaMethodInvoker);
+    assertEquals(int.class, reflector.getSetInvoker("id").getType());
+
+    Bean bean = new Bean();
+    reflector.getSetInvoker("id").invoke(bean, new Object[] {42});
+    reflector.getSetInvoker("name").invoke(bean, new Object[] {"mybatis"});
+    assertEquals(42, reflector.getGetInvoker("id").invoke(bean, null));
+    assertEquals("mybatis", reflector.getGetInvoker("name").invoke(bean, null));
+  }
+
+  @Test
+  void shouldBehaveLikeReflectionOnBadArguments() throws Exception {
+    Invoker setter = LambdaMethodInvoker.forSetter(Bean.class.getMethod("setId", int.class));
+    Bean bean = new Bean();
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(bean, new Object[] {null}));
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(bean, new Object[] {"42"}));
+    // widened by reflection
+    setter.invoke(bean, new Object[] {(short) 7});
+    assertEquals(7, bean.getId());
+  }
+
+  @Test
+  void shouldWrapExceptionsThrownByAccessors() throws Exception {
+    Invoker getter = LambdaMethodInvoker.forGetter(Bean.class.getMethod("getBroken"));
+    InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> getter.invoke(new Bean(), null));
+    assertTrue(e.getTargetException() instanceof IllegalStateException);
+  }
+
+  @Test
+  void shouldFallBackToReflectionForNonPublicClasses() throws Exception {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Hidden.class);
+    assertTrue(reflector.getSetInvoker("value") instanceof MethodInvoker);
+    MetaObject metaObject = MetaObject.forObject(new Hidden(), new DefaultObjectFactory(),
+        new DefaultObjectWrapperFactory(), new LambdaReflectorFactory());
+    metaObject.setValue("value", "hidden");
+    assertEquals("hidden", metaObject.getValue("value"));
+  }
+
+  public static class Bean {
+    private int id;
+    private String name;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getBroken() {
+      throw new IllegalStateException("broken");
+    }
+  }
+
+  static class Hidden {
+    private String value;
+
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+  }
+
+}
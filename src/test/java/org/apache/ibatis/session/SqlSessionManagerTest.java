@@ -15,14 +15,22 @@
  */
 package org.apache.ibatis.session;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.CursorFlow;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.mappers.AuthorMapper;
 import org.apache.ibatis.exceptions.PersistenceException;
@@ -85,6 +93,42 @@ class SqlSessionManagerTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldPublishWithoutManagedSession() throws Exception {
+    String statement = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors";
+    int expected = manager.selectList(statement).size();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CursorFlow.Publisher<Author> publisher = manager.selectPublisher(statement, null, executor);
+      List<Author> authors = new ArrayList<>();
+      CompletableFuture<List<Author>> result = new CompletableFuture<>();
+      publisher.subscribe(new CursorFlow.Subscriber<Author>() {
+        @Override
+        public void onSubscribe(CursorFlow.Subscription subscription) {
+          subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Author author) {
+          authors.add(author);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          result.complete(authors);
+        }
+      });
+      assertEquals(expected, result.get(10, TimeUnit.SECONDS).size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   void shouldImplicitlyRollbackInsertedAuthor() {
     manager.startManagedSession();
@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
+import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class DefaultSqlSessionTest {
+
+  private int boundSqlCount;
+
+  @Test
+  void shouldSplitListToStayUnderParameterLimit() throws Exception {
+    Configuration configuration = createConfiguration(7, "ids");
+    Executor executor = mock(Executor.class);
+    when(executor.update(any(MappedStatement.class), any())).thenReturn(3, 3, 1);
+    List<Integer> ids = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+    ParamMap<Object> parameter = new ParamMap<>();
+    parameter.put("ids", ids);
+    parameter.put("param1", ids);
+    parameter.put("name", "a");
+    parameter.put("param2", "a");
+
+    int count = new DefaultSqlSession(configuration, executor, false).insert("insertAll", parameter);
+
+    assertThat(count).isEqualTo(7);
+    ArgumentCaptor<Object> chunks = ArgumentCaptor.forClass(Object.class);
+    verify(executor, times(3)).update(any(MappedStatement.class), chunks.capture());
+    List<Object> chunkIds = new ArrayList<>();
+    for (Object chunk : chunks.getAllValues()) {
+      Map<?, ?> chunkParameter = (Map<?, ?>) chunk;
+      assertThat(chunkParameter).isInstanceOf(ParamMap.class);
+      assertThat(chunkParameter.get("param1")).isSameAs(chunkParameter.get("ids"));
+      assertThat(chunkParameter.get("name")).isEqualTo("a");
+      chunkIds.add(chunkParameter.get("ids"));
+    }
+    assertThat(chunkIds).containsExactly(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7));
+  }
+
+  @Test
+  void shouldNotSplitListUnderParameterLimit() throws Exception {
+    Configuration configuration = createConfiguration(100, "list");
+    Executor executor = mock(Executor.class);
+    when(executor.update(any(MappedStatement.class), any())).thenReturn(7);
+    List<Integer> ids = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+
+    int count = new DefaultSqlSession(configuration, executor, false).insert("insertAll", ids);
+
+    assertThat(count).isEqualTo(7);
+    verify(executor, times(1)).update(any(MappedStatement.class), any());
+    // a one element list shows the list can not exceed the limit
+    assertThat(boundSqlCount).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotSplitDeletes() throws Exception {
+    Configuration configuration = createConfiguration(7, "list", SqlCommandType.DELETE);
+    Executor executor = mock(Executor.class);
+    when(executor.update(any(MappedStatement.class), any())).thenReturn(7);
+    List<Integer> ids = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+
+    int count = new DefaultSqlSession(configuration, executor, false).delete("insertAll", ids);
+
+    assertThat(count).isEqualTo(7);
+    verify(executor, times(1)).update(any(MappedStatement.class), any());
+    assertThat(boundSqlCount).isZero();
+  }
+
+  private Configuration createConfiguration(int maxParametersPerStatement, String collection) {
+    return createConfiguration(maxParametersPerStatement, collection, SqlCommandType.INSERT);
+  }
+
+  private Configuration createConfiguration(int maxParametersPerStatement, String collection, SqlCommandType sqlCommandType) {
+    Configuration configuration = new Configuration();
+    configuration.setMaxParametersPerStatement(maxParametersPerStatement);
+    // one parameter bound once, two per element
+    MixedSqlNode sqlNode = new MixedSqlNode(Arrays.asList(
+        new StaticTextSqlNode("INSERT INTO T (ID, NAME, SOURCE) SELECT ID, NAME, #{name} FROM ("),
+        new ForEachSqlNode(configuration, new MixedSqlNode(Arrays.asList(
+            new StaticTextSqlNode("SELECT #{id} ID, #{id} NAME"))), collection, null, "id", "", ")", " UNION ")));
+    SqlSource sqlSource = new DynamicSqlSource(configuration, sqlNode);
+    SqlSource countingSqlSource = parameterObject -> {
+      boundSqlCount++;
+      return sqlSource.getBoundSql(parameterObject);
+    };
+    configuration.addMappedStatement(new MappedStatement.Builder(configuration, "insertAll",
+        countingSqlSource, sqlCommandType).build());
+    return configuration;
+  }
+
+}
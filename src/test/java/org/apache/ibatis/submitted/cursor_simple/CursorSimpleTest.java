@@ -22,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorFlow;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
@@ -37,6 +39,10 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 class CursorSimpleTest {
 
@@ -102,6 +108,57 @@ class CursorSimpleTest {
     }
   }
 
+  @Test
+  void shouldPublishUsersOnDemand() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CursorFlow.Publisher<User> publisher = sqlSession.selectPublisher(
+          "org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers", null, executor);
+      List<String> names = new ArrayList<>();
+      CompletableFuture<List<String>> result = new CompletableFuture<>();
+      publisher.subscribe(new CursorFlow.Subscriber<User>() {
+        private CursorFlow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(CursorFlow.Subscription subscription) {
+          this.subscription = subscription;
+          subscription.request(2);
+        }
+
+        @Override
+        public void onNext(User user) {
+          names.add(user.getName());
+          // ask for the next two once both arrived
+          if (names.size() % 2 == 0) {
+            subscription.request(2);
+          }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          result.complete(names);
+        }
+      });
+      Assertions.assertEquals(5, result.get(10, TimeUnit.SECONDS).size());
+      Assertions.assertEquals("User5", names.get(4));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldWrapUnknownStatementOfPublisher() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Assertions.assertThrows(PersistenceException.class,
+          () -> sqlSession.selectPublisher("org.apache.ibatis.submitted.cursor_simple.Mapper.unknown", null, Runnable::run));
+    }
+  }
+
   @Test
   void testCursorClosedOnSessionClose() {
     Cursor<User> usersCursor;
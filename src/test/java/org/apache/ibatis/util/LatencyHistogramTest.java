@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldReportUpperBoundOfPercentileBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(1, TimeUnit.MILLISECONDS);
+    assertEquals(100, histogram.getCount());
+    assertEquals(1024, histogram.getPercentileNanos(50));
+    assertEquals(1024, histogram.getPercentileNanos(99));
+    assertEquals(1000000, histogram.getPercentileNanos(100));
+    assertEquals(1000000, histogram.getMaxNanos());
+    assertEquals((99 * 1000 + 1000000) / 100, histogram.getMeanNanos());
+  }
+
+  @Test
+  void shouldCountDurationsInPowerOfTwoBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(-5);
+    histogram.record(1);
+    histogram.record(1023);
+    histogram.record(1024);
+    histogram.record(Long.MAX_VALUE);
+    long[] counts = histogram.getBucketCounts();
+    assertEquals(2, counts[0]);
+    assertEquals(1, counts[1]);
+    assertEquals(1, counts[10]);
+    assertEquals(1, counts[11]);
+    assertEquals(1, counts[LatencyHistogram.BUCKET_COUNT - 1]);
+  }
+
+  @Test
+  void shouldReportZeroWhenEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMeanNanos());
+    assertEquals(0, histogram.getPercentileNanos(99));
+  }
+
+}